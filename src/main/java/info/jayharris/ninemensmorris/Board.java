@@ -4,63 +4,58 @@ import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableSet;
 
 import java.util.*;
-import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
+/**
+ * The board is backed by one 24-bit occupancy mask per {@link Piece}, where bit
+ * {@code i} corresponds to the {@code i}th coordinate in
+ * {@link Coordinate#ALGEBRAIC_NOTATIONS_FOR_COORDINATES}. {@link Point}s are
+ * views onto those masks.
+ */
 public class Board {
 
-    private final Map<Coordinate, Point> points;
-    private final Supplier<Set<Mill>> getMillsMemoized = new Supplier<Set<Mill>>() {
+    public static final int ALL_POINTS = (1 << Coordinate.NUM_POINTS) - 1;
 
-        Set<Mill> mills = null;
+    private static final Piece[] PIECES = Piece.values();
 
-        @Override
-        public Set<Mill> get() {
-            if (mills == null) {
-                ImmutableSet.Builder<Mill> builder = ImmutableSet.builder();
-
-                Stream.<Stream<String>>builder()
-                        .add(Stream.of("a7", "d7", "g7"))
-                        .add(Stream.of("b6", "d6", "f6"))
-                        .add(Stream.of("c5", "d5", "e5"))
-                        .add(Stream.of("a4", "b4", "c4"))
-                        .add(Stream.of("e4", "f4", "g4"))
-                        .add(Stream.of("c3", "d3", "e3"))
-                        .add(Stream.of("b2", "d2", "f2"))
-                        .add(Stream.of("a1", "d1", "g1"))
-                        .add(Stream.of("a7", "a4", "a1"))
-                        .add(Stream.of("b6", "b4", "b2"))
-                        .add(Stream.of("c5", "c4", "c3"))
-                        .add(Stream.of("d7", "d6", "d5"))
-                        .add(Stream.of("d3", "d2", "d1"))
-                        .add(Stream.of("e5", "e4", "e3"))
-                        .add(Stream.of("f6", "f4", "f2"))
-                        .add(Stream.of("g7", "g4", "g1"))
-                        .build()
-                        .map(stream -> stream.map(Coordinate::get))
-                        .map(stream -> stream.collect(Collectors.toSet()))
-                        .map(Mill::new)
-                        .forEach(builder::add);
-                mills = builder.build();
-            }
-            return mills;
-        }
-    };
+    private final int[] occupancy = new int[PIECES.length];
+
+    /**
+     * the Zobrist key of the pieces on the board, kept up to date by {@link #setPiece(int, Piece)}
+     */
+    private long key;
+
+    /**
+     * for each piece, its complete mills, its open twos (mills with two of its
+     * pieces and an unoccupied point), and its mobility (as {@link
+     * info.jayharris.ninemensmorris.minimax.feature.MobilityFeature} counts it),
+     * also kept up to date by {@link #setPiece(int, Piece)}
+     */
+    private final int[] mills = new int[PIECES.length];
+    private final int[] openTwos = new int[PIECES.length];
+    private final int[] mobility = new int[PIECES.length];
+
+    private final Point[] points = new Point[Coordinate.NUM_POINTS];
+    private final Supplier<Set<Mill>> getMillsMemoized = Suppliers.memoize(() -> Arrays.stream(Coordinate.MILLS)
+            .mapToObj(Mill::new)
+            .collect(ImmutableSet.toImmutableSet()));
     private Supplier<PrettyPrinter> prettyPrinterSupplier = Suppliers.memoize(PrettyPrinter::new);
 
-    public Board() {
-        this.points = Coordinate.valid().stream()
-                .collect(Collectors.toMap(Function.identity(), Point::new));
-    }
+    public Board() { }
 
     public static Board copy(Board original) {
         Board copy = new Board();
 
-        original.points().forEach(point -> copy.getPoint(point.coordinate).setPiece(point.getPiece()));
+        System.arraycopy(original.occupancy, 0, copy.occupancy, 0, original.occupancy.length);
+        copy.key = original.key;
+        System.arraycopy(original.mills, 0, copy.mills, 0, original.mills.length);
+        System.arraycopy(original.openTwos, 0, copy.openTwos, 0, original.openTwos.length);
+        System.arraycopy(original.mobility, 0, copy.mobility, 0, original.mobility.length);
 
         return copy;
     }
@@ -70,19 +65,170 @@ public class Board {
     }
 
     public Point getPoint(Coordinate point) {
-        return points.get(point);
+        return getPoint(point.getIndex());
+    }
+
+    Point getPoint(int index) {
+        // Points are views, so we only create the ones somebody asks for.
+        if (points[index] == null) {
+            points[index] = new Point(Coordinate.get(index));
+        }
+        return points[index];
     }
 
     public Set<Point> getOccupiedPoints(Piece piece) {
-        return points()
-                .filter(point -> point.getPiece() == piece)
-                .collect(Collectors.toSet());
+        return pointsOf(getOccupancy(piece));
     }
 
     public Set<Point> getUnoccupiedPoints() {
-        return points()
-                .filter(Point::isUnoccupied)
-                .collect(Collectors.toSet());
+        return pointsOf(getUnoccupied());
+    }
+
+    /**
+     * Gets the mask of points occupied by {@code piece}.
+     *
+     * @param piece the piece
+     * @return a 24-bit mask
+     */
+    public int getOccupancy(Piece piece) {
+        return occupancy[piece.ordinal()];
+    }
+
+    /**
+     * Gets the mask of unoccupied points.
+     *
+     * @return a 24-bit mask
+     */
+    public int getUnoccupied() {
+        return ~(occupancy[0] | occupancy[1]) & ALL_POINTS;
+    }
+
+    /**
+     * Counts the {@code piece}s on the board.
+     *
+     * @param piece the piece
+     * @return the number of points occupied by {@code piece}
+     */
+    public int count(Piece piece) {
+        return Integer.bitCount(occupancy[piece.ordinal()]);
+    }
+
+    /**
+     * Counts {@code piece}'s complete mills.
+     *
+     * @param piece the piece
+     * @return the number of mills all of whose points are occupied by {@code piece}
+     */
+    public int countMills(Piece piece) {
+        return mills[piece.ordinal()];
+    }
+
+    /**
+     * Counts {@code piece}'s open twos.
+     *
+     * @param piece the piece
+     * @return the number of mills with two points occupied by {@code piece} and
+     *         the third unoccupied
+     */
+    public int countOpenTwos(Piece piece) {
+        return openTwos[piece.ordinal()];
+    }
+
+    /**
+     * Gets {@code piece}'s mobility.
+     *
+     * @param piece the piece
+     * @return the number of pairs of neighboring points where the first is
+     *         occupied by {@code piece} and the second is unoccupied
+     */
+    public int getMobility(Piece piece) {
+        return mobility[piece.ordinal()];
+    }
+
+    /**
+     * Gets the piece on the point at {@code index}.
+     *
+     * @param index the coordinate index
+     * @return the piece, or null if the point is unoccupied
+     */
+    public Piece getPiece(int index) {
+        int bit = 1 << index;
+        for (Piece piece : PIECES) {
+            if ((occupancy[piece.ordinal()] & bit) != 0) {
+                return piece;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Puts {@code piece} on the point at {@code index}, replacing whatever was there.
+     *
+     * @param index the coordinate index
+     * @param piece the piece, or null to empty the point
+     */
+    public void setPiece(int index, Piece piece) {
+        int bit = 1 << index;
+
+        updateCounts(index, -1);
+        Piece previous = getPiece(index);
+        if (previous != null) {
+            occupancy[previous.ordinal()] &= ~bit;
+            key ^= Zobrist.piece(previous, index);
+        }
+        if (piece != null) {
+            occupancy[piece.ordinal()] |= bit;
+            key ^= Zobrist.piece(piece, index);
+        }
+        updateCounts(index, 1);
+    }
+
+    /**
+     * Adds or takes away the mills, open twos and mobility that involve the
+     * point at {@code index}. Nothing else changes when that point does.
+     */
+    private void updateCounts(int index, int sign) {
+        int bit = 1 << index;
+        int unoccupied = getUnoccupied();
+        int neighbors = Coordinate.NEIGHBOR_MASKS[index];
+        int[] millsAt = Coordinate.MILLS_AT[index];
+
+        for (int p = 0; p < PIECES.length; ++p) {
+            int mask = occupancy[p];
+            if ((mask & bit) != 0) {
+                mobility[p] += sign * Integer.bitCount(neighbors & unoccupied);
+            }
+            else if ((unoccupied & bit) != 0) {
+                mobility[p] += sign * Integer.bitCount(neighbors & mask);
+            }
+
+            for (int mill : millsAt) {
+                int own = Integer.bitCount(mask & mill);
+                if (own == 3) {
+                    mills[p] += sign;
+                }
+                else if (own == 2 && (mill & unoccupied) != 0) {
+                    openTwos[p] += sign;
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the Zobrist key of the pieces on the board.
+     *
+     * @return the key
+     */
+    public long getKey() {
+        return key;
+    }
+
+    private Set<Point> pointsOf(int mask) {
+        Set<Point> set = new HashSet<>(Integer.bitCount(mask) * 2);
+        for (int m = mask; m != 0; m &= m - 1) {
+            set.add(getPoint(Integer.numberOfTrailingZeros(m)));
+        }
+        return set;
     }
 
     public Set<Mill> getMills() {
@@ -98,11 +244,22 @@ public class Board {
     }
 
     public Stream<Point> points() {
-        return points.values().stream();
+        return IntStream.range(0, points.length).mapToObj(this::getPoint);
     }
 
     public boolean isCompleteMill(Point point) {
-        return point.getMills().stream().anyMatch(mill -> mill.isComplete(point.getPiece()));
+        Piece piece = point.getPiece();
+        if (piece == null) {
+            return false;
+        }
+
+        int mask = getOccupancy(piece);
+        for (int mill : Coordinate.MILLS_AT[point.index]) {
+            if ((mask & mill) == mill) {
+                return true;
+            }
+        }
+        return false;
     }
 
     @Override
@@ -111,16 +268,12 @@ public class Board {
         if (o == null || getClass() != o.getClass()) return false;
         Board board = (Board) o;
 
-        return Coordinate.COORDINATES.stream()
-                .allMatch(c -> this.getPoint(c).getPiece() == board.getPoint(c).getPiece());
+        return Arrays.equals(occupancy, board.occupancy);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(points.entrySet()
-                .stream()
-                .filter(e -> e.getValue().getPiece() != null)
-                .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().getPiece())));
+        return Long.hashCode(key);
     }
 
     public String pretty() {
@@ -128,34 +281,38 @@ public class Board {
     }
 
     public class Point {
-        Piece piece;
-        private Coordinate coordinate;
+        private final Coordinate coordinate;
+        private final int index;
 
         Point(Coordinate coordinate) {
             this.coordinate = coordinate;
+            this.index = coordinate.getIndex();
         }
 
         public Piece getPiece() {
-            return piece;
+            return Board.this.getPiece(index);
         }
 
         public void setPiece(Piece piece) {
-            this.piece = piece;
+            Board.this.setPiece(index, piece);
         }
 
         public boolean isUnoccupied() {
-            return piece == null;
+            return (getUnoccupied() & (1 << index)) != 0;
         }
 
         public Set<Point> getNeighbors() {
-            return Coordinate.neighbors.get(coordinate).stream()
-                    .map(points::get)
-                    .collect(Collectors.toSet());
+            return pointsOf(Coordinate.NEIGHBOR_MASKS[index]);
+        }
+
+        public boolean isAdjacentTo(Point other) {
+            return (Coordinate.NEIGHBOR_MASKS[index] & (1 << other.index)) != 0;
         }
 
         Set<Mill> getMills() {
-            return Coordinate.mills.get(coordinate).stream()
-                    .map(Mill::new)
+            int bit = 1 << index;
+            return getMillsMemoized.get().stream()
+                    .filter(mill -> (mill.mask & bit) != 0)
                     .collect(Collectors.toSet());
         }
 
@@ -166,13 +323,14 @@ public class Board {
         }
 
         String pretty() {
+            Piece piece = getPiece();
             return piece == null ? "+" : piece.pretty();
         }
 
         @Override
         public String toString() {
             return new StringJoiner(", ", Point.class.getSimpleName() + "[", "]")
-                    .add("piece=" + piece)
+                    .add("piece=" + getPiece())
                     .add("coordinate='" + coordinate + "'")
                     .toString();
         }
@@ -193,13 +351,19 @@ public class Board {
 
     public class Mill {
         Set<Point> points;
+        private final int mask;
 
-        Mill(Set<Coordinate> points) {
-            this.points = points.stream().map(Board.this.points::get).collect(Collectors.toSet());
+        Mill(int mask) {
+            this.points = pointsOf(mask);
+            this.mask = mask;
         }
 
         boolean isComplete(Piece piece) {
-            return points.stream().allMatch(point -> point.getPiece() == piece);
+            return (getOccupancy(piece) & mask) == mask;
+        }
+
+        public int getMask() {
+            return mask;
         }
 
         public Set<Point> getPoints() {
@@ -236,7 +400,7 @@ public class Board {
             StringBuffer sb = new StringBuffer();
             Iterator<Point> iter = Coordinate.ALGEBRAIC_NOTATIONS_FOR_COORDINATES.stream()
                     .map(Coordinate::get)
-                    .map(points::get)
+                    .map(Board.this::getPoint)
                     .iterator();
 
             Matcher matcher = pattern.matcher(template);
@@ -1,18 +1,15 @@
 package info.jayharris.ninemensmorris;
 
-import info.jayharris.ninemensmorris.Board.Point;
-
 import java.util.Optional;
-import java.util.Set;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
 
 public class BoardUtils {
 
-    public static final int NUM_POINTS = Coordinate.ALGEBRAIC_NOTATIONS_FOR_COORDINATES.size();
+    public static final int NUM_POINTS = Coordinate.NUM_POINTS;
 
     public static boolean isEmpty(Board board) {
-        return board.getUnoccupiedPoints().size() == NUM_POINTS;
+        return board.getUnoccupied() == Board.ALL_POINTS;
     }
 
     /**
@@ -25,22 +22,35 @@ public class BoardUtils {
     public static boolean isWinner(Board board, Piece piece) {
         Piece opponent = piece.opposite();
 
-        Set<Point> occupiedPoints = board.getOccupiedPoints(opponent);
+        int occupiedPoints = board.getOccupancy(opponent);
+        int count = Integer.bitCount(occupiedPoints);
 
         // Opponent is left with only two piece, so we win.
-        if (occupiedPoints.size() < 3) {
+        if (count < 3) {
             return true;
         }
 
         // With three pieces, the opponent can play at any empty point. so there's always a legal move for him.
-        if (occupiedPoints.size() == 3) {
+        if (count == 3) {
             return false;
         }
 
         // If the opponent has any piece with an unoccupied neighbor point, the game can keep going.
-        return !occupiedPoints.stream()
-                .flatMap(point -> point.getNeighbors().stream())
-                .anyMatch(Point::isUnoccupied);
+        return (neighborsOf(occupiedPoints) & board.getUnoccupied()) == 0;
+    }
+
+    /**
+     * Gets the mask of every point adjacent to some point in {@code mask}.
+     *
+     * @param mask a mask of points
+     * @return the mask of neighboring points
+     */
+    public static int neighborsOf(int mask) {
+        int neighbors = 0;
+        for (int m = mask; m != 0; m &= m - 1) {
+            neighbors |= Coordinate.NEIGHBOR_MASKS[Integer.numberOfTrailingZeros(m)];
+        }
+        return neighbors;
     }
 
     public static Predicate<Piece> pieceIsWinner(Board board) {
@@ -1,8 +1,6 @@
 package info.jayharris.ninemensmorris;
 
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.ImmutableSetMultimap;
-import com.google.common.collect.Multimap;
 import org.apache.commons.lang3.tuple.Pair;
 
 import java.util.*;
@@ -23,10 +21,26 @@ public class Coordinate {
 
     public static final Collection<Coordinate> COORDINATES = coordinates.values();
 
-    static final Multimap<Coordinate, Coordinate> neighbors;
+    public static final int NUM_POINTS = ALGEBRAIC_NOTATIONS_FOR_COORDINATES.size();
+
+    private static final Coordinate[] byIndex = new Coordinate[NUM_POINTS];
     static {
-        ImmutableSetMultimap.Builder<Coordinate, Coordinate> builder = ImmutableSetMultimap.builder();
+        coordinates.values().forEach(coordinate -> byIndex[coordinate.index] = coordinate);
+    }
+
+    // Lookup tables indexed by coordinate index. Masks use bit i for the coordinate
+    // at index i. These are shared, so don't write to them.
+
+    /**
+     * for each point, the indices of its neighbors
+     */
+    public static final int[][] NEIGHBORS = new int[NUM_POINTS][];
 
+    /**
+     * for each point, the mask of its neighbors
+     */
+    public static final int[] NEIGHBOR_MASKS = new int[NUM_POINTS];
+    static {
         Stream.<Pair<String, String>>builder()
                 .add(Pair.of("a7","d7"))
                 .add(Pair.of("d7","g7"))
@@ -61,19 +75,28 @@ public class Coordinate {
                 .add(Pair.of("g7","g4"))
                 .add(Pair.of("g4","g1"))
                 .build()
-                .map(pair -> Pair.of(get(pair.getLeft()), get(pair.getRight())))
                 .forEach(pair -> {
-                    builder.put(pair.getLeft(), pair.getRight());
-                    builder.put(pair.getRight(), pair.getLeft());
+                    int left = get(pair.getLeft()).index, right = get(pair.getRight()).index;
+                    NEIGHBOR_MASKS[left] |= 1 << right;
+                    NEIGHBOR_MASKS[right] |= 1 << left;
                 });
-        neighbors = builder.build();
+
+        for (int i = 0; i < NUM_POINTS; ++i) {
+            NEIGHBORS[i] = indices(NEIGHBOR_MASKS[i]);
+        }
     }
 
-    static final Multimap<Coordinate, Set<Coordinate>> mills;
-    static {
-        ImmutableSetMultimap.Builder<Coordinate, Set<Coordinate>> builder = ImmutableSetMultimap.builder();
+    /**
+     * the masks of all sixteen mills
+     */
+    public static final int[] MILLS;
 
-        Stream.<Stream<String>>builder()
+    /**
+     * for each point, the masks of the two mills running through it
+     */
+    public static final int[][] MILLS_AT = new int[NUM_POINTS][];
+    static {
+        MILLS = Stream.<Stream<String>>builder()
                 .add(Stream.of("a7", "d7", "g7"))
                 .add(Stream.of("b6", "d6", "f6"))
                 .add(Stream.of("c5", "d5", "e5"))
@@ -91,22 +114,36 @@ public class Coordinate {
                 .add(Stream.of("f6", "f4", "f2"))
                 .add(Stream.of("g7", "g4", "g1"))
                 .build()
-                .map(stream -> stream.map(Coordinate::get))
-                .map(stream -> stream.collect(Collectors.toSet()))
-                .forEach(set -> set.forEach(point -> builder.put(point, set)));
-        mills = builder.build();
+                .mapToInt(stream -> stream.mapToInt(id -> 1 << get(id).index).reduce(0, (a, b) -> a | b))
+                .toArray();
+
+        for (int i = 0; i < NUM_POINTS; ++i) {
+            int bit = 1 << i;
+            MILLS_AT[i] = Arrays.stream(MILLS).filter(mill -> (mill & bit) != 0).toArray();
+        }
     }
 
     private final String id;
 
+    /**
+     * the position of this coordinate in {@link #ALGEBRAIC_NOTATIONS_FOR_COORDINATES},
+     * which doubles as its bit in a board's occupancy masks
+     */
+    private final int index;
+
     private Coordinate(String id) {
         this.id = id;
+        this.index = ALGEBRAIC_NOTATIONS_FOR_COORDINATES.indexOf(id);
     }
 
     public String pretty() {
         return id;
     }
 
+    public int getIndex() {
+        return index;
+    }
+
     @Override
     public String toString() {
         return new StringJoiner(", ", Coordinate.class.getSimpleName() + "[", "]")
@@ -116,7 +153,7 @@ public class Coordinate {
 
     @Override
     public int hashCode() {
-        return Objects.hash(id);
+        return index;
     }
 
     @Override
@@ -124,7 +161,7 @@ public class Coordinate {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Coordinate that = (Coordinate) o;
-        return Objects.equals(id, that.id);
+        return index == that.index;
     }
 
     public static Collection<Coordinate> valid() {
@@ -134,4 +171,22 @@ public class Coordinate {
     public static Coordinate get(String algebraicNotation) {
         return coordinates.get(algebraicNotation);
     }
+
+    public static Coordinate get(int index) {
+        return byIndex[index];
+    }
+
+    /**
+     * Lists the indices of the bits set in {@code mask}, in increasing order.
+     *
+     * @param mask a mask of points
+     * @return the indices
+     */
+    public static int[] indices(int mask) {
+        int[] indices = new int[Integer.bitCount(mask)];
+        for (int i = 0, m = mask; m != 0; m &= m - 1) {
+            indices[i++] = Integer.numberOfTrailingZeros(m);
+        }
+        return indices;
+    }
 }
@@ -8,7 +8,10 @@ import info.jayharris.ninemensmorris.player.BasePlayer;
 import info.jayharris.ninemensmorris.player.MinimaxPlayer;
 import info.jayharris.ninemensmorris.player.TerminalPlayer;
 
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.Arrays;
+import java.util.function.ToDoubleFunction;
 
 public class Game {
 
@@ -62,7 +65,7 @@ public class Game {
 
         history.accept(turn);
         if (turn.getMoveType() == MovePiece.class) {
-            stalemateChecker.accept(Board.copy(board));
+            stalemateChecker.accept(board);
         }
 
         ++ply;
@@ -91,11 +94,21 @@ public class Game {
         return board.pretty();
     }
 
-    public static void main(String... args) {
+    /**
+     * Plays a game against the computer.
+     *
+     * @param args a weights file for a {@link WeightedFeatureHeuristicFunction}
+     *             (default: compare the players' mobility)
+     * @throws IOException if the weights file can't be read
+     */
+    public static void main(String... args) throws IOException {
         BasePlayer black = new TerminalPlayer(Piece.BLACK);
 
+        ToDoubleFunction<MinimaxState> heuristic = args.length > 0
+                ? WeightedFeatureHeuristicFunction.create(Piece.WHITE, Paths.get(args[0]))
+                : new ComparativeMobilityHeuristicFunction(Piece.WHITE);
         Search<MinimaxState, MinimaxAction> search = new NineMensMorrisMinimaxDecision(
-                new SampleCutoffTest(), new ComparativeMobilityHeuristicFunction(Piece.WHITE), Piece.WHITE);
+                new SampleCutoffTest(), heuristic, Piece.WHITE);
         BasePlayer white = new MinimaxPlayer(Piece.WHITE, Suppliers.ofInstance(search));
 
         Game game = new Game(black, white);
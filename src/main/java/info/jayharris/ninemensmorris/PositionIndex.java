@@ -0,0 +1,374 @@
+package info.jayharris.ninemensmorris;
+
+import java.util.Spliterator;
+import java.util.function.LongConsumer;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * A perfect index of the positions where one player has {@code first} pieces and
+ * the other has {@code second}: every such position has a rank from zero up to,
+ * but not including, {@link #size()}, and every rank is a position. Arrays
+ * indexed by rank can then stand in for maps keyed by position.
+ *
+ * Which player is "first" is up to the caller, e.g. white, or the player to move.
+ * A position is a pair of masks over {@link Coordinate} indices, packed into a
+ * {@code long} by {@link #pack}.
+ *
+ * A set of points is ranked in the combinatorial number system: the rank of
+ * points {@code p1 < p2 < ... < pk} is {@code C(p1, 1) + C(p2, 2) + ... + C(pk, k)}.
+ * Counting up through masks with that many bits visits the sets in rank order.
+ * A position's rank is the rank of the first player's points among all of the
+ * points, times the number of ways to place the second player's pieces, plus the
+ * rank of the second player's points among the points that are left.
+ */
+public final class PositionIndex {
+
+    private static final int POINTS = Coordinate.NUM_POINTS;
+
+    /**
+     * binomial coefficients: {@code BINOMIAL[n][k]} is n choose k
+     */
+    private static final int[][] BINOMIAL = new int[POINTS + 1][POINTS + 1];
+    static {
+        for (int n = 0; n <= POINTS; ++n) {
+            BINOMIAL[n][0] = 1;
+            for (int k = 1; k <= n; ++k) {
+                BINOMIAL[n][k] = BINOMIAL[n - 1][k - 1] + BINOMIAL[n - 1][k];
+            }
+        }
+    }
+
+    private static final PositionIndex[][] INDICES = new PositionIndex[POINTS + 1][];
+    static {
+        for (int first = 0; first <= POINTS; ++first) {
+            INDICES[first] = new PositionIndex[POINTS - first + 1];
+            for (int second = 0; second <= POINTS - first; ++second) {
+                INDICES[first][second] = new PositionIndex(first, second);
+            }
+        }
+    }
+
+    private final int first, second;
+
+    /**
+     * the number of ways to place the first player's pieces, and then the second
+     * player's pieces
+     */
+    private final int firstSubsets, secondSubsets;
+
+    private PositionIndex(int first, int second) {
+        this.first = first;
+        this.second = second;
+        this.firstSubsets = BINOMIAL[POINTS][first];
+        this.secondSubsets = BINOMIAL[POINTS - first][second];
+    }
+
+    public int getFirst() {
+        return first;
+    }
+
+    public int getSecond() {
+        return second;
+    }
+
+    /**
+     * Gets the number of ways to place the first player's pieces. The positions
+     * with the same first player's points have consecutive ranks, in blocks of
+     * {@link #getSecondSubsets()}.
+     *
+     * @return the number of ways
+     */
+    public int getFirstSubsets() {
+        return firstSubsets;
+    }
+
+    /**
+     * Gets the number of ways to place the second player's pieces, once the first
+     * player's pieces are placed.
+     *
+     * @return the number of ways
+     */
+    public int getSecondSubsets() {
+        return secondSubsets;
+    }
+
+    /**
+     * Gets the number of positions.
+     *
+     * @return the number of positions
+     */
+    public long size() {
+        return (long) firstSubsets * secondSubsets;
+    }
+
+    /**
+     * Gets the rank of a position.
+     *
+     * @param firstMask the points occupied by the first player
+     * @param secondMask the points occupied by the second player
+     * @return the rank
+     */
+    public long rank(int firstMask, int secondMask) {
+        return (long) rankSubset(firstMask) * secondSubsets + rankSubset(compress(secondMask, firstMask));
+    }
+
+    /**
+     * Gets the rank of a board, with white as the first player.
+     *
+     * @param board the board
+     * @return the rank
+     */
+    public long rank(Board board) {
+        return rank(board.getOccupancy(Piece.WHITE), board.getOccupancy(Piece.BLACK));
+    }
+
+    /**
+     * Gets the position with a rank.
+     *
+     * @param rank the rank
+     * @return the position, packed by {@link #pack}
+     */
+    public long unrank(long rank) {
+        checkArgument(rank >= 0 && rank < size(), "The rank must be between 0 and %s.", size());
+
+        int firstMask = unrankSubset((int) (rank / secondSubsets), first);
+        int secondMask = expand(unrankSubset((int) (rank % secondSubsets), second), free(firstMask));
+        return pack(firstMask, secondMask);
+    }
+
+    /**
+     * Gets every position, in rank order. The stream can be made parallel.
+     *
+     * @return the positions, packed by {@link #pack}
+     */
+    public LongStream positions() {
+        return positions(0, size());
+    }
+
+    /**
+     * Gets the positions from rank {@code from}, inclusive, to rank {@code to},
+     * exclusive, in rank order. The stream can be made parallel.
+     *
+     * @param from the lowest rank
+     * @param to one more than the highest rank
+     * @return the positions, packed by {@link #pack}
+     */
+    public LongStream positions(long from, long to) {
+        return StreamSupport.longStream(spliterator(from, to), false);
+    }
+
+    /**
+     * Gets a spliterator over the positions from rank {@code from}, inclusive, to
+     * rank {@code to}, exclusive. It steps from one position to the next without
+     * unranking each one, and splits by rank.
+     *
+     * @param from the lowest rank
+     * @param to one more than the highest rank
+     * @return the spliterator
+     */
+    public Spliterator.OfLong spliterator(long from, long to) {
+        checkArgument(from >= 0 && from <= to && to <= size(), "The ranks must be between 0 and %s.", size());
+        return new PositionSpliterator(from, to);
+    }
+
+    /**
+     * Packs a position into a {@code long}.
+     *
+     * @param firstMask the points occupied by the first player
+     * @param secondMask the points occupied by the second player
+     * @return the position
+     */
+    public static long pack(int firstMask, int secondMask) {
+        return (long) secondMask << 32 | firstMask & 0xffffffffL;
+    }
+
+    /**
+     * Gets the points occupied by the first player in a packed position.
+     *
+     * @param position the position
+     * @return the mask
+     */
+    public static int first(long position) {
+        return (int) position;
+    }
+
+    /**
+     * Gets the points occupied by the second player in a packed position.
+     *
+     * @param position the position
+     * @return the mask
+     */
+    public static int second(long position) {
+        return (int) (position >>> 32);
+    }
+
+    public static PositionIndex of(int first, int second) {
+        checkArgument(first >= 0 && second >= 0 && first + second <= POINTS, "There are only %s points.", POINTS);
+        return INDICES[first][second];
+    }
+
+    /**
+     * n choose k
+     */
+    static int binomial(int n, int k) {
+        return BINOMIAL[n][k];
+    }
+
+    static int rankSubset(int mask) {
+        int rank = 0, k = 1;
+        for (int m = mask; m != 0; m &= m - 1) {
+            rank += BINOMIAL[Integer.numberOfTrailingZeros(m)][k++];
+        }
+        return rank;
+    }
+
+    static int unrankSubset(int rank, int k) {
+        int mask = 0;
+        for (int p = POINTS - 1; k > 0; --p) {
+            if (BINOMIAL[p][k] <= rank) {
+                rank -= BINOMIAL[p][k];
+                mask |= 1 << p;
+                --k;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Removes the points in {@code skip} from the numbering, and renumbers the
+     * points in {@code mask} to match.
+     */
+    static int compress(int mask, int skip) {
+        int compressed = 0;
+        for (int m = mask; m != 0; m &= m - 1) {
+            int p = Integer.numberOfTrailingZeros(m);
+            compressed |= 1 << (p - Integer.bitCount(skip & ((1 << p) - 1)));
+        }
+        return compressed;
+    }
+
+    /**
+     * Inverts {@link #compress}, given the points left after the skipped points
+     * are removed, in order.
+     */
+    static int expand(int compressed, int[] free) {
+        int mask = 0;
+        for (int m = compressed; m != 0; m &= m - 1) {
+            mask |= 1 << free[Integer.numberOfTrailingZeros(m)];
+        }
+        return mask;
+    }
+
+    /**
+     * the points not in {@code mask}, in order
+     */
+    static int[] free(int mask) {
+        int[] free = new int[POINTS - Integer.bitCount(mask)];
+        for (int p = 0, i = 0; p < POINTS; ++p) {
+            if ((mask & (1 << p)) == 0) {
+                free[i++] = p;
+            }
+        }
+        return free;
+    }
+
+    /**
+     * Gets the next larger mask with the same number of bits ("Gosper's hack").
+     * The mask must not be zero.
+     */
+    static int nextSubset(int mask) {
+        int lowest = mask & -mask, ripple = mask + lowest;
+        return ripple | (((mask ^ ripple) >>> 2) / lowest);
+    }
+
+    private class PositionSpliterator implements Spliterator.OfLong {
+
+        private long rank;
+        private final long end;
+
+        // the position at rank, when rank < end
+        private int firstMask, compressed;
+        private int[] free;
+
+        /**
+         * the number of positions left in the current block of positions with the
+         * same first player's points
+         */
+        private int leftInBlock;
+
+        PositionSpliterator(long from, long to) {
+            this.rank = from;
+            this.end = to;
+            if (from < to) {
+                firstMask = unrankSubset((int) (from / secondSubsets), first);
+                free = free(firstMask);
+                int secondRank = (int) (from % secondSubsets);
+                compressed = unrankSubset(secondRank, second);
+                leftInBlock = secondSubsets - secondRank;
+            }
+        }
+
+        @Override
+        public boolean tryAdvance(LongConsumer action) {
+            if (rank >= end) {
+                return false;
+            }
+            action.accept(pack(firstMask, expand(compressed, free)));
+            advance();
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(LongConsumer action) {
+            while (rank < end) {
+                action.accept(pack(firstMask, expand(compressed, free)));
+                advance();
+            }
+        }
+
+        private void advance() {
+            if (++rank >= end) {
+                return;
+            }
+            if (--leftInBlock > 0) {
+                compressed = nextSubset(compressed);
+            }
+            else {
+                firstMask = nextSubset(firstMask);
+                free = free(firstMask);
+                compressed = (1 << second) - 1;
+                leftInBlock = secondSubsets;
+            }
+        }
+
+        @Override
+        public Spliterator.OfLong trySplit() {
+            long mid = rank + (end - rank) / 2;
+            if (mid == rank) {
+                return null;
+            }
+
+            Spliterator.OfLong prefix = new PositionSpliterator(rank, mid);
+            PositionSpliterator suffix = new PositionSpliterator(mid, end);
+            this.rank = suffix.rank;
+            this.firstMask = suffix.firstMask;
+            this.compressed = suffix.compressed;
+            this.free = suffix.free;
+            this.leftInBlock = suffix.leftInBlock;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return end - rank;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | DISTINCT | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package info.jayharris.ninemensmorris;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Like {@link PositionIndex}, but with one rank for all of the positions that a
+ * {@link Symmetry} maps to each other, for close to a sixteenth of the size.
+ *
+ * A position is ranked by its canonical form: the rank of the first player's
+ * canonical points among all of the canonical sets of that many points, times the
+ * number of ways to place the second player's pieces, plus the rank of the second
+ * player's points among the points that are left. When the first player's points
+ * are symmetric themselves, some of the ranks after them belong to positions that
+ * aren't canonical, and are never used; {@link #isCanonical} tells them apart.
+ */
+public final class ReducedPositionIndex {
+
+    private static final int POINTS = Coordinate.NUM_POINTS;
+
+    /**
+     * the index for each number of pieces, by {@code first * (POINTS + 1) + second};
+     * each is made the first time it's asked for, since finding the canonical
+     * sets takes a while
+     */
+    private static final AtomicReferenceArray<ReducedPositionIndex> INDICES =
+            new AtomicReferenceArray<>((POINTS + 1) * (POINTS + 1));
+
+    private final int first, second;
+
+    /**
+     * the canonical sets of the first player's points, in order
+     */
+    private final int[] firstSets;
+
+    private final int secondSubsets;
+
+    private ReducedPositionIndex(int first, int second) {
+        this.first = first;
+        this.second = second;
+
+        PositionIndex index = PositionIndex.of(first, second);
+        this.firstSets = IntStream.range(0, index.getFirstSubsets())
+                .map(rank -> PositionIndex.unrankSubset(rank, first))
+                .filter(mask -> Symmetry.canonicalize(mask) == mask)
+                .toArray();
+        this.secondSubsets = index.getSecondSubsets();
+    }
+
+    public int getFirst() {
+        return first;
+    }
+
+    public int getSecond() {
+        return second;
+    }
+
+    /**
+     * Gets the number of ranks, including the ones that aren't used.
+     *
+     * @return the number of ranks
+     */
+    public long size() {
+        return (long) firstSets.length * secondSubsets;
+    }
+
+    /**
+     * Gets the rank of a position, which is the same for every position
+     * symmetric to it.
+     *
+     * @param firstMask the points occupied by the first player
+     * @param secondMask the points occupied by the second player
+     * @return the rank
+     */
+    public long rank(int firstMask, int secondMask) {
+        long canonical = Symmetry.position(Symmetry.canonicalize(firstMask, secondMask));
+        int firstCanonical = PositionIndex.first(canonical), secondCanonical = PositionIndex.second(canonical);
+
+        long firstRank = Arrays.binarySearch(firstSets, firstCanonical);
+        return firstRank * secondSubsets
+                + PositionIndex.rankSubset(PositionIndex.compress(secondCanonical, firstCanonical));
+    }
+
+    /**
+     * Gets the rank of a board, with white as the first player.
+     *
+     * @param board the board
+     * @return the rank
+     */
+    public long rank(Board board) {
+        return rank(board.getOccupancy(Piece.WHITE), board.getOccupancy(Piece.BLACK));
+    }
+
+    /**
+     * Gets the position with a rank. If the rank isn't used, this is a position
+     * that isn't canonical.
+     *
+     * @param rank the rank
+     * @return the position, packed by {@link PositionIndex#pack}
+     */
+    public long unrank(long rank) {
+        checkArgument(rank >= 0 && rank < size(), "The rank must be between 0 and %s.", size());
+
+        int firstMask = firstSets[(int) (rank / secondSubsets)];
+        int secondMask = PositionIndex.expand(
+                PositionIndex.unrankSubset((int) (rank % secondSubsets), second), PositionIndex.free(firstMask));
+        return PositionIndex.pack(firstMask, secondMask);
+    }
+
+    /**
+     * Determines whether a rank is used.
+     *
+     * @param rank the rank
+     * @return true iff the position with the rank is canonical
+     */
+    public boolean isCanonical(long rank) {
+        long position = unrank(rank);
+        return Symmetry.position(Symmetry.canonicalize(PositionIndex.first(position), PositionIndex.second(position)))
+                == position;
+    }
+
+    /**
+     * Gets one position for each used rank, in rank order. The stream can be made
+     * parallel.
+     *
+     * @return the canonical positions, packed by {@link PositionIndex#pack}
+     */
+    public LongStream positions() {
+        return LongStream.range(0, size())
+                .map(this::unrank)
+                .filter(position -> Symmetry.position(
+                        Symmetry.canonicalize(PositionIndex.first(position), PositionIndex.second(position))) == position);
+    }
+
+    public static ReducedPositionIndex of(int first, int second) {
+        checkArgument(first >= 0 && second >= 0 && first + second <= POINTS, "There are only %s points.", POINTS);
+
+        int i = first * (POINTS + 1) + second;
+        ReducedPositionIndex index = INDICES.get(i);
+        if (index == null) {
+            INDICES.compareAndSet(i, null, new ReducedPositionIndex(first, second));
+            index = INDICES.get(i);
+        }
+        return index;
+    }
+}
@@ -1,26 +1,41 @@
 package info.jayharris.ninemensmorris;
 
-import com.google.common.collect.HashMultiset;
-import com.google.common.collect.Multiset;
+import java.util.Arrays;
 
 /**
  * The stalemate checker tracks the history of all the board states since the
  * "move piece" phase of the game began. If we are in a board state that has
  * already appeared in the game history, then the game is a draw.
+ *
+ * Only the boards since the last capture are kept. A capture leaves the
+ * board with fewer pieces for the rest of the game, so none of the boards before
+ * it can come up again.
  */
 public class StalemateChecker {
-    
-    private final Multiset<Board> stateHistory;
+
+    /**
+     * the Zobrist keys of the boards seen since the last capture, oldest first
+     */
+    private long[] history;
+    private int size;
+
+    /**
+     * the number of pieces on the boards in the history
+     */
+    private int pieces;
 
     private boolean isStalemate;
 
     protected StalemateChecker() {
-        stateHistory = HashMultiset.create();
+        history = new long[16];
+        size = 0;
         isStalemate = false;
     }
 
     private StalemateChecker(StalemateChecker original) {
-        stateHistory = HashMultiset.create(original.stateHistory);
+        history = Arrays.copyOf(original.history, Math.max(16, original.size * 2));
+        size = original.size;
+        pieces = original.pieces;
         isStalemate = original.isStalemate;
     }
 
@@ -28,22 +43,46 @@ public class StalemateChecker {
      * Takes the given {@code Board} and checks if its state already appears in the
      * game history.
      *
-     * We always add the given {@code Board} to the history.
+     * We always add the given {@code Board} to the history. If a piece has been
+     * captured since the last board, we forget the boards before it first.
      *
      * @param board the board
      */
     public void accept(Board board) {
-        if(stateHistory.contains(board)) {
-            isStalemate = true;
+        long key = board.getKey();
+
+        int count = Integer.bitCount(board.getUnoccupied() ^ Board.ALL_POINTS);
+        if (count != pieces) {
+            size = 0;
+            pieces = count;
         }
 
-        stateHistory.add(board);
+        for (int i = 0; i < size; ++i) {
+            if (history[i] == key) {
+                isStalemate = true;
+                break;
+            }
+        }
+
+        if (size == history.length) {
+            history = Arrays.copyOf(history, size * 2);
+        }
+        history[size++] = key;
     }
 
     public boolean isStalemate() {
         return isStalemate;
     }
 
+    /**
+     * Gets the keys of the boards in the history.
+     *
+     * @return the board keys since the last capture, oldest first
+     */
+    public long[] getHistory() {
+        return Arrays.copyOf(history, size);
+    }
+
     public static StalemateChecker create() {
         return new StalemateChecker();
     }
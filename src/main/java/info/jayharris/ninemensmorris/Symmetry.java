@@ -0,0 +1,223 @@
+package info.jayharris.ninemensmorris;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * The 16 symmetries of the board: four rotations, each with or without a
+ * reflection, and each with or without swapping the inner and outer squares.
+ * Every one of them maps mills to mills and neighbors to neighbors, so it maps
+ * a position to an equivalent one.
+ *
+ * Symmetry {@code s} rotates the board by {@code s % 4} quarter turns clockwise,
+ * after reflecting it left to right if bit 2 is set, and after swapping the
+ * squares if bit 3 is set. Symmetry 0 is the identity.
+ *
+ * A position's canonical form is its smallest image: the one where the first
+ * player's mask is smallest, and among those, where the second player's mask is
+ * smallest.
+ */
+public final class Symmetry {
+
+    public static final int COUNT = 16;
+
+    public static final int IDENTITY = 0;
+
+    /**
+     * each square, clockwise from the top left corner
+     */
+    private static final List<List<String>> SQUARES = Arrays.asList(
+            Arrays.asList("a7", "d7", "g7", "g4", "g1", "d1", "a1", "a4"),
+            Arrays.asList("b6", "d6", "f6", "f4", "f2", "d2", "b2", "b4"),
+            Arrays.asList("c5", "d5", "e5", "e4", "e3", "d3", "c3", "c4"));
+
+    private static final int POINTS = Coordinate.NUM_POINTS;
+
+    /**
+     * for each symmetry, the index of the point each point goes to
+     */
+    private static final int[][] PERMUTATIONS = new int[COUNT][POINTS];
+
+    /**
+     * for each symmetry, the symmetry that undoes it
+     */
+    private static final int[] INVERSES = new int[COUNT];
+
+    /**
+     * for each symmetry and each byte of a mask, the image of that byte
+     */
+    private static final int[][][] BYTE_IMAGES = new int[COUNT][3][1 << 8];
+
+    static {
+        for (int s = 0; s < COUNT; ++s) {
+            for (int square = 0; square < SQUARES.size(); ++square) {
+                for (int i = 0; i < 8; ++i) {
+                    int toSquare = (s & 8) == 0 ? square : SQUARES.size() - 1 - square;
+                    int toI = (s & 4) == 0 ? i : (10 - i) % 8;
+                    toI = (toI + 2 * (s & 3)) % 8;
+
+                    PERMUTATIONS[s][index(SQUARES.get(square).get(i))] = index(SQUARES.get(toSquare).get(toI));
+                }
+            }
+        }
+
+        for (int s = 0; s < COUNT; ++s) {
+            for (int t = 0; t < COUNT; ++t) {
+                boolean inverse = true;
+                for (int p = 0; p < POINTS; ++p) {
+                    inverse &= PERMUTATIONS[t][PERMUTATIONS[s][p]] == p;
+                }
+                if (inverse) {
+                    INVERSES[s] = t;
+                }
+            }
+        }
+
+        for (int s = 0; s < COUNT; ++s) {
+            for (int b = 0; b < 3; ++b) {
+                for (int bits = 0; bits < 1 << 8; ++bits) {
+                    int image = 0;
+                    for (int m = bits; m != 0; m &= m - 1) {
+                        image |= 1 << PERMUTATIONS[s][8 * b + Integer.numberOfTrailingZeros(m)];
+                    }
+                    BYTE_IMAGES[s][b][bits] = image;
+                }
+            }
+        }
+    }
+
+    private Symmetry() { }
+
+    /**
+     * Gets the image of a mask of points.
+     *
+     * @param symmetry the symmetry
+     * @param mask the mask
+     * @return the mask of the points {@code mask}'s points go to
+     */
+    public static int apply(int symmetry, int mask) {
+        int[][] images = BYTE_IMAGES[symmetry];
+        return images[0][mask & 0xff] | images[1][(mask >>> 8) & 0xff] | images[2][(mask >>> 16) & 0xff];
+    }
+
+    /**
+     * Gets the image of a point.
+     *
+     * @param symmetry the symmetry
+     * @param coordinate the point
+     * @return the coordinate index of the point it goes to
+     */
+    public static int apply(int symmetry, Coordinate coordinate) {
+        return PERMUTATIONS[symmetry][coordinate.getIndex()];
+    }
+
+    /**
+     * Gets the image of a point.
+     *
+     * @param symmetry the symmetry
+     * @param index the coordinate index of the point
+     * @return the coordinate index of the point it goes to
+     */
+    public static int applyToIndex(int symmetry, int index) {
+        return PERMUTATIONS[symmetry][index];
+    }
+
+    /**
+     * Gets where a symmetry takes every point.
+     *
+     * @param symmetry the symmetry
+     * @return a new array holding, for each coordinate index, the index of the
+     *         point it goes to
+     */
+    public static int[] getPermutation(int symmetry) {
+        return PERMUTATIONS[symmetry].clone();
+    }
+
+    /**
+     * Gets the symmetry that undoes {@code symmetry}.
+     *
+     * @param symmetry the symmetry
+     * @return the inverse
+     */
+    public static int inverse(int symmetry) {
+        return INVERSES[symmetry];
+    }
+
+    /**
+     * Finds the canonical form of a position.
+     *
+     * @param firstMask the points occupied by the first player
+     * @param secondMask the points occupied by the second player
+     * @return the canonical form, packed by {@link PositionIndex#pack}, with the
+     *         symmetry that maps the position to it in the top four bits
+     */
+    public static long canonicalize(int firstMask, int secondMask) {
+        checkArgument((firstMask & secondMask) == 0, "The players can't share a point.");
+
+        int best = IDENTITY, bestFirst = firstMask, bestSecond = secondMask;
+        for (int s = 1; s < COUNT; ++s) {
+            int first = apply(s, firstMask);
+            if (first > bestFirst) {
+                continue;
+            }
+
+            int second = apply(s, secondMask);
+            if (first < bestFirst || second < bestSecond) {
+                best = s;
+                bestFirst = first;
+                bestSecond = second;
+            }
+        }
+        return PositionIndex.pack(bestFirst, bestSecond) | (long) best << 60;
+    }
+
+    /**
+     * Finds the canonical form of a board, with white as the first player.
+     *
+     * @param board the board
+     * @return the canonical form, as {@link #canonicalize(int, int)} returns it
+     */
+    public static long canonicalize(Board board) {
+        return canonicalize(board.getOccupancy(Piece.WHITE), board.getOccupancy(Piece.BLACK));
+    }
+
+    /**
+     * Gets the position from a result of {@link #canonicalize}.
+     *
+     * @param canonical the result
+     * @return the canonical position, packed by {@link PositionIndex#pack}
+     */
+    public static long position(long canonical) {
+        return canonical & ~(0xfL << 60);
+    }
+
+    /**
+     * Gets the symmetry from a result of {@link #canonicalize}.
+     *
+     * @param canonical the result
+     * @return the symmetry that maps the position to its canonical form
+     */
+    public static int symmetry(long canonical) {
+        return (int) (canonical >>> 60);
+    }
+
+    /**
+     * Finds the smallest image of a mask.
+     *
+     * @param mask the mask
+     * @return the smallest image
+     */
+    public static int canonicalize(int mask) {
+        int best = mask;
+        for (int s = 1; s < COUNT; ++s) {
+            best = Math.min(best, apply(s, mask));
+        }
+        return best;
+    }
+
+    private static int index(String point) {
+        return Coordinate.get(point).getIndex();
+    }
+}
@@ -0,0 +1,73 @@
+package info.jayharris.ninemensmorris;
+
+import java.util.SplittableRandom;
+
+/**
+ * Random keys for Zobrist hashing.
+ *
+ * A position's key is the XOR of the keys of its components (a piece on a point,
+ * the player to move, the number of pieces the player to move has left to place),
+ * so it can be updated incrementally by XORing components in and out.
+ */
+public final class Zobrist {
+
+    // Fixed seed so keys are stable from run to run, and can be stored on disk.
+    private static final long SEED = 0x9E3779B97F4A7C15L;
+
+    private static final long[][] pieces = new long[Piece.values().length][Coordinate.NUM_POINTS];
+    private static final long[] toMove = new long[Piece.values().length];
+    private static final long[][] piecesInHand = new long[Piece.values().length][10];
+    static {
+        SplittableRandom random = new SplittableRandom(SEED);
+
+        for (long[] keys : pieces) {
+            for (int i = 0; i < keys.length; ++i) {
+                keys[i] = random.nextLong();
+            }
+        }
+        for (int i = 0; i < toMove.length; ++i) {
+            toMove[i] = random.nextLong();
+        }
+        for (long[] keys : piecesInHand) {
+            // Having no pieces left to place hashes to 0 so that in the "move piece"
+            // phase of the game, only the board and the player to move matter.
+            for (int i = 1; i < keys.length; ++i) {
+                keys[i] = random.nextLong();
+            }
+        }
+    }
+
+    private Zobrist() { }
+
+    /**
+     * Gets the key for {@code piece} on the point at {@code index}.
+     *
+     * @param piece the piece
+     * @param index the coordinate index
+     * @return the key
+     */
+    public static long piece(Piece piece, int index) {
+        return pieces[piece.ordinal()][index];
+    }
+
+    /**
+     * Gets the key for {@code piece} being the player to move.
+     *
+     * @param piece the player to move
+     * @return the key
+     */
+    public static long toMove(Piece piece) {
+        return toMove[piece.ordinal()];
+    }
+
+    /**
+     * Gets the key for the player to move having {@code count} pieces left to place.
+     *
+     * @param piece the player to move
+     * @param count the number of pieces left to place
+     * @return the key
+     */
+    public static long piecesInHand(Piece piece, int count) {
+        return piecesInHand[piece.ordinal()][count];
+    }
+}
@@ -0,0 +1,159 @@
+package info.jayharris.ninemensmorris.book;
+
+import info.jayharris.ninemensmorris.Board;
+import info.jayharris.ninemensmorris.Piece;
+import info.jayharris.ninemensmorris.Symmetry;
+import info.jayharris.ninemensmorris.minimax.MinimaxAction;
+import info.jayharris.ninemensmorris.minimax.MinimaxState;
+import info.jayharris.ninemensmorris.minimax.PackedMove;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The best moves from positions early in the game, from a file made by
+ * {@link OpeningBookBuilder}.
+ *
+ * A position is stored once for all of its {@link Symmetry symmetric} images,
+ * under the key of its canonical form. The file is a sequence of fixed-size
+ * entries, sorted by key, each of which is:
+ *
+ * <ul>
+ *     <li>the key, a {@code long};</li>
+ *     <li>the best move from the canonical form, a {@link PackedMove};</li>
+ *     <li>its score for the player to move, a {@code float}.</li>
+ * </ul>
+ *
+ * The file is memory-mapped, and looked up by binary search.
+ */
+public final class OpeningBook {
+
+    static final int ENTRY_BYTES = Long.BYTES + Integer.BYTES + Float.BYTES;
+
+    private static final OpeningBook EMPTY = new OpeningBook(ByteBuffer.allocate(0));
+
+    private final ByteBuffer entries;
+    private final int size;
+
+    private OpeningBook(ByteBuffer entries) {
+        this.entries = entries;
+        this.size = entries.capacity() / ENTRY_BYTES;
+    }
+
+    /**
+     * Finds the best action from {@code state}.
+     *
+     * @param state the state
+     * @return the best action, or {@code null} if the state isn't in the book
+     */
+    public MinimaxAction bestMove(MinimaxState state) {
+        long canonical = canonicalize(state.getBoard(), state.getToMove(), state.getPlayerPieces());
+        int index = find(key(canonical));
+        if (index < 0) {
+            return null;
+        }
+
+        int move = entries.getInt(index * ENTRY_BYTES + Long.BYTES);
+        return MinimaxAction.fromPackedMove(transform(move, Symmetry.inverse(Symmetry.symmetry(canonical))));
+    }
+
+    /**
+     * Gets the score of {@code state}'s best move.
+     *
+     * @param state the state
+     * @return the score for the player to move, or {@code NaN} if the state isn't
+     *         in the book
+     */
+    public double score(MinimaxState state) {
+        int index = find(key(canonicalize(state.getBoard(), state.getToMove(), state.getPlayerPieces())));
+        return index < 0 ? Double.NaN : entries.getFloat(index * ENTRY_BYTES + Long.BYTES + Integer.BYTES);
+    }
+
+    /**
+     * Gets the number of positions in the book.
+     *
+     * @return the number of positions
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * the index of the entry with {@code key}, or -1
+     */
+    private int find(long key) {
+        int lo = 0, hi = size - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            long k = entries.getLong(mid * ENTRY_BYTES);
+            if (k < key) {
+                lo = mid + 1;
+            }
+            else if (k > key) {
+                hi = mid - 1;
+            }
+            else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Canonicalizes a position, with the player to move as the first player, and
+     * adds the player to move and the number of pieces they have left to place.
+     *
+     * @return the key in the low 60 bits, and the symmetry that maps the position
+     *         to its canonical form in the top four
+     */
+    static long canonicalize(Board board, Piece toMove, int playerPieces) {
+        long canonical = Symmetry.canonicalize(board.getOccupancy(toMove), board.getOccupancy(toMove.opposite()));
+
+        // the first player's mask only uses the low 24 of its 32 bits
+        return canonical | (long) playerPieces << 24 | (long) toMove.ordinal() << 28;
+    }
+
+    static long key(long canonical) {
+        return Symmetry.position(canonical);
+    }
+
+    /**
+     * Gets the image of a move under a symmetry.
+     */
+    static int transform(int move, int symmetry) {
+        return PackedMove.of(transformPoint(PackedMove.from(move), symmetry),
+                transformPoint(PackedMove.to(move), symmetry), transformPoint(PackedMove.capture(move), symmetry));
+    }
+
+    private static int transformPoint(int point, int symmetry) {
+        return point == PackedMove.NONE ? PackedMove.NONE : Symmetry.applyToIndex(symmetry, point);
+    }
+
+    /**
+     * Opens an opening book file.
+     *
+     * @param path the file
+     * @return the opening book
+     * @throws IOException if the file can't be read, or isn't a whole number of entries
+     */
+    public static OpeningBook open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() % ENTRY_BYTES != 0 || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(String.format("%s isn't an opening book.", path));
+            }
+            return new OpeningBook(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Gets an opening book with no positions in it.
+     *
+     * @return the empty opening book
+     */
+    public static OpeningBook empty() {
+        return EMPTY;
+    }
+}
@@ -0,0 +1,186 @@
+package info.jayharris.ninemensmorris.book;
+
+import info.jayharris.ninemensmorris.Board;
+import info.jayharris.ninemensmorris.Piece;
+import info.jayharris.ninemensmorris.StalemateChecker;
+import info.jayharris.ninemensmorris.minimax.ComparativeMobilityHeuristicFunction;
+import info.jayharris.ninemensmorris.minimax.MinimaxAction;
+import info.jayharris.ninemensmorris.minimax.MinimaxState;
+import info.jayharris.ninemensmorris.minimax.MoveGenerator;
+import info.jayharris.ninemensmorris.minimax.PrincipalVariationSearch;
+import info.jayharris.ninemensmorris.minimax.SearchBudget;
+import info.jayharris.ninemensmorris.minimax.SearchState;
+import info.jayharris.ninemensmorris.minimax.TranspositionTable;
+import info.jayharris.ninemensmorris.player.BasePlayer;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.LongStream;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Builds an {@link OpeningBook} by searching every position in the first few
+ * plies of the "place piece" phase.
+ *
+ * The positions are found breadth first from the start of the game, one per
+ * class of symmetric positions. Each one is then searched to a fixed depth with
+ * a {@link PrincipalVariationSearch}, in parallel, with a transposition table per
+ * thread that's cleared before each position so the book doesn't depend on the
+ * order the positions are searched in.
+ */
+public class OpeningBookBuilder {
+
+    private static final int DEFAULT_TABLE_MEGABYTES = 16;
+
+    private final int plies;
+    private final int depth;
+    private final Function<Piece, ToDoubleFunction<MinimaxState>> heuristics;
+    private final ThreadLocal<TranspositionTable> tables;
+
+    public OpeningBookBuilder(int plies, int depth) {
+        this(plies, depth, ComparativeMobilityHeuristicFunction::new, DEFAULT_TABLE_MEGABYTES);
+    }
+
+    /**
+     * Constructs an opening book builder.
+     *
+     * @param plies the number of plies from the start of the game to store positions for
+     * @param depth the depth to search each position to
+     * @param heuristics makes the heuristic function for a player
+     * @param tableMegabytes the size of each thread's transposition table
+     */
+    public OpeningBookBuilder(int plies, int depth, Function<Piece, ToDoubleFunction<MinimaxState>> heuristics,
+                              int tableMegabytes) {
+        checkArgument(plies > 0 && plies <= 2 * BasePlayer.STARTING_PIECES,
+                "The book has to end in the \"place piece\" phase.");
+        checkArgument(depth > 0 && depth <= TranspositionTable.MAX_DEPTH,
+                "Depth must be between 1 and %s.", TranspositionTable.MAX_DEPTH);
+
+        this.plies = plies;
+        this.depth = depth;
+        this.heuristics = heuristics;
+        this.tables = ThreadLocal.withInitial(() -> TranspositionTable.create(tableMegabytes));
+    }
+
+    /**
+     * Finds every position in the first {@code plies} plies, up to symmetry.
+     *
+     * @return the positions' keys, in order
+     */
+    long[] positions() {
+        long[] ply = {
+                OpeningBook.key(OpeningBook.canonicalize(new Board(), BasePlayer.FIRST_PLAYER, BasePlayer.STARTING_PIECES))
+        };
+        long[] all = ply;
+
+        for (int i = 1; i < plies; ++i) {
+            ply = Arrays.stream(ply).parallel()
+                    .flatMap(OpeningBookBuilder::successors)
+                    .distinct()
+                    .sorted()
+                    .toArray();
+            all = LongStream.concat(Arrays.stream(all), Arrays.stream(ply)).sorted().toArray();
+        }
+        return all;
+    }
+
+    /**
+     * Searches every position and writes the book.
+     *
+     * @param path the file to write
+     * @throws IOException if the file can't be written
+     */
+    public void build(Path path) throws IOException {
+        long[] keys = positions();
+        long[] moves = new long[keys.length];
+        Arrays.parallelSetAll(moves, i -> search(keys[i]));
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            for (int i = 0; i < keys.length; ++i) {
+                out.writeLong(keys[i]);
+                out.writeInt((int) moves[i]);
+                out.writeFloat(Float.intBitsToFloat((int) (moves[i] >>> 32)));
+            }
+        }
+    }
+
+    /**
+     * Searches a position.
+     *
+     * @return the best move in the low 32 bits, and the bits of its score as a
+     *         {@code float} in the high 32 bits
+     */
+    private long search(long key) {
+        MinimaxState state = state(key);
+        TranspositionTable table = tables.get();
+        table.clear();
+
+        PrincipalVariationSearch search = new PrincipalVariationSearch(heuristics.apply(state.getToMove()),
+                state.getToMove(), table, SearchBudget.UNLIMITED, depth);
+        MinimaxAction action = search.perform(state);
+
+        return (long) Float.floatToIntBits((float) search.getScore()) << 32 | action.getPackedMove();
+    }
+
+    private static LongStream successors(long key) {
+        SearchState state = SearchState.create(state(key));
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int n = state.generate(moves, 0);
+
+        long[] successors = new long[n];
+        for (int i = 0; i < n; ++i) {
+            state.make(moves[i]);
+            successors[i] = OpeningBook.key(
+                    OpeningBook.canonicalize(state.getBoard(), state.getToMove(), state.getPlayerPieces()));
+            state.unmake(moves[i]);
+        }
+        return Arrays.stream(successors);
+    }
+
+    /**
+     * Makes the state for a key: the player to move's pieces are in the low 24
+     * bits, the number of pieces they have left to place in the next four, which
+     * player it is in the next, and the other player's pieces in the high 32.
+     */
+    static MinimaxState state(long key) {
+        Piece toMove = Piece.values()[(int) (key >>> 28) & 1];
+        int playerPieces = (int) (key >>> 24) & 0xf;
+
+        Board board = new Board();
+        place(board, (int) key & Board.ALL_POINTS, toMove);
+        place(board, (int) (key >>> 32), toMove.opposite());
+        return MinimaxState.create(board, toMove, playerPieces, StalemateChecker.create());
+    }
+
+    private static void place(Board board, int mask, Piece piece) {
+        for (int m = mask; m != 0; m &= m - 1) {
+            board.setPiece(Integer.numberOfTrailingZeros(m), piece);
+        }
+    }
+
+    /**
+     * Builds an opening book.
+     *
+     * @param args the file to write (default "book.bin"), the number of plies
+     *             (default 4), and the depth to search to (default 6)
+     * @throws IOException if the file can't be written
+     */
+    public static void main(String... args) throws IOException {
+        Path path = Paths.get(args.length > 0 ? args[0] : "book.bin");
+        int plies = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int depth = args.length > 2 ? Integer.parseInt(args[2]) : 6;
+
+        long start = System.nanoTime();
+        new OpeningBookBuilder(plies, depth).build(path);
+        System.out.printf("Built a %d-ply opening book in %s in %.1f s.%n",
+                plies, path, (System.nanoTime() - start) / 1e9);
+    }
+}
@@ -1,7 +1,6 @@
 package info.jayharris.ninemensmorris.minimax;
 
 import info.jayharris.ninemensmorris.Board;
-import info.jayharris.ninemensmorris.BoardUtils;
 import info.jayharris.ninemensmorris.Piece;
 import info.jayharris.ninemensmorris.minimax.feature.MobilityFeature;
 
@@ -11,21 +10,23 @@ import info.jayharris.ninemensmorris.minimax.feature.MobilityFeature;
  */
 public class ComparativeMobilityHeuristicFunction extends AbstractHeuristicFunction {
 
+    private final MobilityFeature myMobility, theirMobility;
+
     public ComparativeMobilityHeuristicFunction(Piece myPiece) {
         super(myPiece);
+        this.myMobility = new MobilityFeature(myPiece);
+        this.theirMobility = new MobilityFeature(myPiece.opposite());
     }
 
     @Override
     public double applyAsDouble(MinimaxState state) {
         Board board = state.getBoard();
+        int mine = board.getOccupancy(piece), theirs = board.getOccupancy(piece.opposite());
 
-        if (BoardUtils.isEmpty(board)) {
+        if ((mine | theirs) == 0) {
             return 4;
         }
 
-        double myMobility = new MobilityFeature(piece).apply(state);
-        double theirMobility = new MobilityFeature(piece.opposite()).apply(state);
-
-        return myMobility / theirMobility;
+        return myMobility.apply(board) / theirMobility.apply(board);
     }
 }
@@ -0,0 +1,111 @@
+package info.jayharris.ninemensmorris.minimax;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToDoubleFunction;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * A heuristic function that remembers the scores of states it's evaluated, in
+ * front of another heuristic function.
+ *
+ * The cache is direct-mapped: a power-of-two number of slots, one per entry,
+ * indexed by the low bits of a state's {@link MinimaxState#getKey() key}. The key
+ * covers the board, the player to move and the pieces left to place. A new score
+ * always replaces the slot's old one.
+ *
+ * Like a {@link TranspositionTable}, the cache can be shared by several searching
+ * threads without locking. A slot holds {@code key ^ score} next to the score's
+ * bits, so if two threads write a slot at once, the mismatched half won't verify
+ * and the slot reads as a miss.
+ */
+public final class EvaluationCache implements ToDoubleFunction<MinimaxState> {
+
+    private final ToDoubleFunction<MinimaxState> heuristic;
+
+    private final long[] keys;
+    private final long[] scores;
+    private final int mask;
+
+    private final LongAdder hits = new LongAdder(), misses = new LongAdder();
+
+    private EvaluationCache(ToDoubleFunction<MinimaxState> heuristic, int entries) {
+        this.heuristic = heuristic;
+        this.keys = new long[entries];
+        this.scores = new long[entries];
+        this.mask = entries - 1;
+    }
+
+    @Override
+    public double applyAsDouble(MinimaxState state) {
+        long key = state.getKey();
+        int slot = (int) key & mask;
+
+        // read each array once, since another thread may be writing the slot
+        long bits = scores[slot];
+        long check = keys[slot];
+        if ((check ^ bits) == key && (check | bits) != 0) {
+            hits.increment();
+            return Double.longBitsToDouble(bits);
+        }
+
+        misses.increment();
+        double score = heuristic.applyAsDouble(state);
+        bits = Double.doubleToRawLongBits(score);
+        keys[slot] = key ^ bits;
+        scores[slot] = bits;
+        return score;
+    }
+
+    /**
+     * Removes every entry and resets the counters. This must not be called while
+     * the cache is being used.
+     */
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(scores, 0);
+        hits.reset();
+        misses.reset();
+    }
+
+    /**
+     * Gets the number of entries the cache can hold.
+     *
+     * @return the capacity
+     */
+    public int capacity() {
+        return scores.length;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Gets the fraction of evaluations that were found in the cache.
+     *
+     * @return the hit rate, or 0 if nothing has been evaluated
+     */
+    public double getHitRate() {
+        long h = hits.sum(), total = h + misses.sum();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    /**
+     * Creates a cache in front of a heuristic function.
+     *
+     * @param heuristic the heuristic function
+     * @param entries the number of entries to hold, rounded down to a power of two
+     * @return a new cache
+     */
+    public static EvaluationCache create(ToDoubleFunction<MinimaxState> heuristic, int entries) {
+        checkArgument(entries > 0, "The cache must hold at least one entry.");
+
+        return new EvaluationCache(heuristic, Integer.highestOneBit(entries));
+    }
+}
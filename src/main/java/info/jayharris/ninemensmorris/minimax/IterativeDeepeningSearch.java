@@ -0,0 +1,95 @@
+package info.jayharris.ninemensmorris.minimax;
+
+import info.jayharris.minimax.search.Search;
+import info.jayharris.ninemensmorris.Piece;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Searches one ply deeper at a time until its {@link SearchBudget} runs out, and
+ * returns the best move from the deepest search that finished.
+ *
+ * Each iteration searches the best move from the previous iteration first. The
+ * transposition table carries the best move found at every other state into the
+ * next iteration, too, so the deeper searches prune more.
+ */
+public class IterativeDeepeningSearch implements Search<MinimaxState, MinimaxAction> {
+
+    private final NegamaxSearch search;
+    private final SearchBudget budget;
+    private final int maxDepth;
+
+    private int completedDepth;
+    private double score;
+
+    public IterativeDeepeningSearch(ToDoubleFunction<MinimaxState> heuristic, Piece myPiece,
+                                    TranspositionTable table, SearchBudget budget) {
+        this(heuristic, myPiece, table, budget, TranspositionTable.MAX_DEPTH);
+    }
+
+    public IterativeDeepeningSearch(ToDoubleFunction<MinimaxState> heuristic, Piece myPiece,
+                                    TranspositionTable table, SearchBudget budget, int maxDepth) {
+        this.search = new NegamaxSearch(maxDepth, heuristic, myPiece, table);
+        this.budget = budget;
+        this.maxDepth = maxDepth;
+    }
+
+    @Override
+    public MinimaxAction perform(MinimaxState initialState) {
+        search.start(initialState, budget);
+        completedDepth = 0;
+
+        int best = PackedMove.NO_MOVE;
+        for (int depth = 1; depth <= maxDepth; ++depth) {
+            int move = search.root(depth, best);
+
+            if (search.isAborted()) {
+                // We didn't finish even one ply, so take the best move we did find.
+                if (best == PackedMove.NO_MOVE) {
+                    best = move;
+                }
+                break;
+            }
+
+            best = move;
+            completedDepth = depth;
+            score = search.getScore();
+
+            // There's nothing to search, or a deeper search won't change the outcome.
+            if (best == PackedMove.NO_MOVE || Double.isInfinite(score)) {
+                break;
+            }
+        }
+
+        return best == PackedMove.NO_MOVE ? null : MinimaxAction.fromPackedMove(best);
+    }
+
+    /**
+     * Gets the depth of the deepest search that finished during the last call to
+     * {@link #perform}.
+     *
+     * @return the depth
+     */
+    public int getCompletedDepth() {
+        return completedDepth;
+    }
+
+    /**
+     * Gets the score of the deepest search that finished, relative to {@code myPiece}.
+     *
+     * @return the score
+     */
+    public double getScore() {
+        return score;
+    }
+
+    /**
+     * Gets the number of states visited during the last call to {@link #perform},
+     * over all iterations.
+     *
+     * @return the number of nodes
+     */
+    public long getNodes() {
+        return search.getNodes();
+    }
+}
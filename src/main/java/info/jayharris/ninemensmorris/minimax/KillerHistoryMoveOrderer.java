@@ -0,0 +1,153 @@
+package info.jayharris.ninemensmorris.minimax;
+
+import info.jayharris.ninemensmorris.Piece;
+
+import java.util.Arrays;
+
+/**
+ * Orders moves by how likely they are to be best, in this order:
+ *
+ * <ol>
+ *     <li>the hash move;</li>
+ *     <li>moves that capture a piece;</li>
+ *     <li>moves onto the empty point of an opponent's two-in-a-row, which stop the
+ *     opponent from closing that mill;</li>
+ *     <li>killer moves: the last two quiet moves that caused a cutoff at the same ply,
+ *     on the theory that a move that refuted one position refutes its siblings too;</li>
+ *     <li>everything else, by the history heuristic: how much each move has caused
+ *     cutoffs anywhere in the tree, weighted by the depth left.</li>
+ * </ol>
+ *
+ * Moves with the same priority keep the order {@link MoveGenerator} generates them.
+ */
+public class KillerHistoryMoveOrderer extends MoveOrderer {
+
+    private static final int HASH_MOVE = 1 << 30;
+    private static final int CAPTURE = 1 << 29;
+    private static final int BLOCK = 1 << 28;
+    private static final int FIRST_KILLER = 1 << 27;
+    private static final int SECOND_KILLER = 1 << 26;
+
+    /**
+     * history scores are halved when one reaches this, to stay below the killers
+     * and to let old results fade
+     */
+    private static final int MAX_HISTORY = 1 << 20;
+
+    /**
+     * two killer moves per ply
+     */
+    private final int[][] killers = new int[TranspositionTable.MAX_DEPTH + 1][2];
+
+    /**
+     * history scores for each player, indexed by the "from" and "to" of a move
+     */
+    private final int[][] history = new int[Piece.values().length][1 << 10];
+
+    /**
+     * one buffer of sort keys per ply, allocated as the search first reaches that ply
+     */
+    private final int[][] keys = new int[TranspositionTable.MAX_DEPTH + 1][];
+
+    public KillerHistoryMoveOrderer() {
+        clearKillers();
+    }
+
+    @Override
+    public void order(SearchState state, int[] moves, int n, int ply, int hashMove) {
+        Piece toMove = state.getToMove();
+        int theirs = state.getBoard().getOccupancy(toMove.opposite());
+        int[] killers = this.killers[ply], history = this.history[toMove.ordinal()];
+        int[] keys = keys(ply);
+
+        for (int i = 0; i < n; ++i) {
+            int move = moves[i];
+            int key;
+            if (move == hashMove) {
+                key = HASH_MOVE;
+            }
+            else if (PackedMove.isCapturePiece(move)) {
+                key = CAPTURE;
+            }
+            else if (MoveGenerator.completesMill(theirs, PackedMove.to(move))) {
+                key = BLOCK;
+            }
+            else if (move == killers[0]) {
+                key = FIRST_KILLER;
+            }
+            else if (move == killers[1]) {
+                key = SECOND_KILLER;
+            }
+            else {
+                key = history[historyIndex(move)];
+            }
+            keys[i] = key;
+        }
+
+        // insertion sort, since there are rarely more than a few dozen moves and
+        // the sort has to be stable
+        for (int i = 1; i < n; ++i) {
+            int move = moves[i], key = keys[i];
+            int j = i - 1;
+            while (j >= 0 && keys[j] < key) {
+                moves[j + 1] = moves[j];
+                keys[j + 1] = keys[j];
+                --j;
+            }
+            moves[j + 1] = move;
+            keys[j + 1] = key;
+        }
+    }
+
+    @Override
+    protected void learn(SearchState state, int move, int ply, int depth) {
+        // Captures are tried early anyway.
+        if (PackedMove.isCapturePiece(move)) {
+            return;
+        }
+
+        int[] killers = this.killers[ply];
+        if (killers[0] != move) {
+            killers[1] = killers[0];
+            killers[0] = move;
+        }
+
+        int[] history = this.history[state.getToMove().ordinal()];
+        int index = historyIndex(move);
+        history[index] += depth * depth;
+        if (history[index] >= MAX_HISTORY) {
+            for (int i = 0; i < history.length; ++i) {
+                history[i] >>= 1;
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        clearKillers();
+        for (int[] h : history) {
+            Arrays.fill(h, 0);
+        }
+    }
+
+    private void clearKillers() {
+        for (int[] k : killers) {
+            Arrays.fill(k, PackedMove.NO_MOVE);
+        }
+    }
+
+    private int[] keys(int ply) {
+        if (keys[ply] == null) {
+            keys[ply] = new int[MoveGenerator.MAX_MOVES];
+        }
+        return keys[ply];
+    }
+
+    /**
+     * the move without its capture, i.e. its "from" and "to"
+     */
+    private static int historyIndex(int move) {
+        return move & 0x3ff;
+    }
+}
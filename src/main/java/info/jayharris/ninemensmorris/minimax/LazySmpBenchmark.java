@@ -0,0 +1,70 @@
+package info.jayharris.ninemensmorris.minimax;
+
+import info.jayharris.ninemensmorris.Board;
+import info.jayharris.ninemensmorris.Piece;
+import info.jayharris.ninemensmorris.StalemateChecker;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures how much faster a {@link LazySmpSearch} gets with more threads.
+ */
+public final class LazySmpBenchmark {
+
+    private LazySmpBenchmark() {
+    }
+
+    /**
+     * Searches a few positions to a fixed depth with 1, 2, 4, ... threads, and
+     * reports how much faster each thread count reaches that depth than one
+     * thread does.
+     *
+     * @param args the depth (default 7), and the largest number of threads
+     *             (default the number of processors)
+     */
+    public static void main(String... args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 7;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+        List<MinimaxState> positions = new ArrayList<>();
+        positions.add(position(Piece.BLACK, 7, "c3", "d3", "e3", "b4"));
+        positions.add(position(Piece.WHITE, 6, "a7", "d6", "c5", "e4", "b2", "g1", "f4"));
+        positions.add(position(Piece.BLACK, 0, "a7", "d7", "b6", "f6", "c4", "d3", "d2", "a1", "g1"));
+
+        double baseline = 0;
+        System.out.printf("%7s %10s %14s %12s %8s%n", "threads", "time (ms)", "nodes", "nodes/s", "speedup");
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            long nanos = 0, nodes = 0;
+
+            for (MinimaxState position : positions) {
+                Piece myPiece = position.getToMove();
+                try (LazySmpSearch search = new LazySmpSearch(new ComparativeMobilityHeuristicFunction(myPiece),
+                        myPiece, TranspositionTable.create(64), SearchBudget.UNLIMITED, threads, depth)) {
+                    long begin = System.nanoTime();
+                    search.perform(position);
+                    nanos += System.nanoTime() - begin;
+                    nodes += search.getNodes();
+                }
+            }
+
+            if (threads == 1) {
+                baseline = nanos;
+            }
+            System.out.printf("%7d %10.1f %14d %12.0f %8.2f%n",
+                    threads, nanos / 1e6, nodes, nodes / (nanos / 1e9), baseline / nanos);
+        }
+    }
+
+    /**
+     * Creates a position where black and white alternate on {@code points},
+     * starting with black.
+     */
+    private static MinimaxState position(Piece toMove, int playerPieces, String... points) {
+        Board board = new Board();
+        for (int i = 0; i < points.length; ++i) {
+            board.getPoint(points[i]).setPiece(i % 2 == 0 ? Piece.BLACK : Piece.WHITE);
+        }
+        return MinimaxState.create(board, toMove, playerPieces, StalemateChecker.create());
+    }
+}
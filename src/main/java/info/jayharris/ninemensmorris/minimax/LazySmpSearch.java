@@ -0,0 +1,165 @@
+package info.jayharris.ninemensmorris.minimax;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import info.jayharris.minimax.search.Search;
+import info.jayharris.ninemensmorris.Piece;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.ToDoubleFunction;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * A parallel iterative-deepening search ("Lazy SMP").
+ *
+ * The calling thread runs an {@link IterativeDeepeningSearch} as usual, while
+ * helper threads run the same search from the same state, sharing one
+ * {@link TranspositionTable}. The helpers don't coordinate with each other at
+ * all: they speed up the main search only by filling the table with results it
+ * would otherwise have to compute. Every other helper starts one ply deeper, so
+ * the helpers spread out over the tree rather than all searching the same
+ * states in the same order.
+ *
+ * The move returned is always the main search's. When it finishes, the helpers
+ * are told to stop.
+ *
+ * The heuristic function is called from every thread, so it must be thread-safe.
+ */
+public class LazySmpSearch implements Search<MinimaxState, MinimaxAction>, AutoCloseable {
+
+    private final IterativeDeepeningSearch main;
+    private final List<NegamaxSearch> helpers = new ArrayList<>();
+    private final int maxDepth;
+
+    /**
+     * runs the helpers; null when there are none
+     */
+    private final ExecutorService executor;
+    private final long[] threadNodes;
+
+    public LazySmpSearch(ToDoubleFunction<MinimaxState> heuristic, Piece myPiece,
+                         TranspositionTable table, SearchBudget budget, int threads) {
+        this(heuristic, myPiece, table, budget, threads, TranspositionTable.MAX_DEPTH);
+    }
+
+    public LazySmpSearch(ToDoubleFunction<MinimaxState> heuristic, Piece myPiece,
+                         TranspositionTable table, SearchBudget budget, int threads, int maxDepth) {
+        checkArgument(threads > 0, "There must be at least one thread.");
+
+        this.main = new IterativeDeepeningSearch(heuristic, myPiece, table, budget, maxDepth);
+        for (int i = 1; i < threads; ++i) {
+            helpers.add(new NegamaxSearch(maxDepth, heuristic, myPiece, table));
+        }
+        this.maxDepth = maxDepth;
+
+        this.executor = helpers.isEmpty() ? null : Executors.newFixedThreadPool(helpers.size(),
+                new ThreadFactoryBuilder().setNameFormat("lazy-smp-%d").setDaemon(true).build());
+        this.threadNodes = new long[threads];
+    }
+
+    @Override
+    public MinimaxAction perform(MinimaxState initialState) {
+        AtomicBoolean stop = new AtomicBoolean();
+
+        List<Future<Long>> futures = new ArrayList<>();
+        for (int i = 0; i < helpers.size(); ++i) {
+            NegamaxSearch helper = helpers.get(i);
+            int firstDepth = 1 + (i + 1) % 2;
+            futures.add(executor.submit(() -> help(helper, initialState, firstDepth, stop)));
+        }
+
+        MinimaxAction action;
+        try {
+            action = main.perform(initialState);
+        }
+        finally {
+            stop.set(true);
+        }
+        threadNodes[0] = main.getNodes();
+
+        for (int i = 0; i < futures.size(); ++i) {
+            try {
+                threadNodes[i + 1] = futures.get(i).get();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            catch (ExecutionException e) {
+                throw new IllegalStateException("A helper search failed.", e.getCause());
+            }
+        }
+
+        return action;
+    }
+
+    /**
+     * Searches deeper and deeper from {@code initialState} until told to stop.
+     *
+     * @return the number of nodes searched
+     */
+    private long help(NegamaxSearch helper, MinimaxState initialState, int firstDepth, AtomicBoolean stop) {
+        helper.start(initialState, SearchBudget.UNLIMITED, stop);
+
+        for (int depth = firstDepth; depth <= maxDepth && !stop.get(); ++depth) {
+            if (helper.root(depth, PackedMove.NO_MOVE) == PackedMove.NO_MOVE) {
+                break;
+            }
+        }
+        return helper.getNodes();
+    }
+
+    /**
+     * Gets the depth of the deepest search that the main thread finished during
+     * the last call to {@link #perform}.
+     *
+     * @return the depth
+     */
+    public int getCompletedDepth() {
+        return main.getCompletedDepth();
+    }
+
+    public double getScore() {
+        return main.getScore();
+    }
+
+    /**
+     * Gets the number of states each thread visited during the last call to
+     * {@link #perform}. The main thread is first.
+     *
+     * @return the number of nodes for each thread
+     */
+    public long[] getThreadNodes() {
+        return threadNodes.clone();
+    }
+
+    /**
+     * Gets the number of states all threads visited during the last call to
+     * {@link #perform}.
+     *
+     * @return the number of nodes
+     */
+    public long getNodes() {
+        long nodes = 0;
+        for (long n : threadNodes) {
+            nodes += n;
+        }
+        return nodes;
+    }
+
+    /**
+     * Stops the helper threads. The search can't be performed after it's closed.
+     */
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
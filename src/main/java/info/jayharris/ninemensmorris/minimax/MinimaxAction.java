@@ -11,23 +11,20 @@ import info.jayharris.ninemensmorris.move.PlacePiece;
 
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Objects;
 import java.util.function.Function;
 
+/**
+ * An action in the decision tree.
+ *
+ * This is a view onto a {@link PackedMove}, for use where the search meets the
+ * rest of the game.
+ */
 public class MinimaxAction implements Action<MinimaxState, MinimaxAction> {
 
-    private Coordinate placePiece;
-    private Coordinate movePieceFrom;
-    private Coordinate movePieceTo;
-    private Coordinate capturePiece;
+    private int move;
 
-    private MinimaxAction(Coordinate placePiece) {
-        this.placePiece = placePiece;
-    }
-
-    private MinimaxAction(Coordinate movePieceFrom, Coordinate movePieceTo) {
-        this.movePieceFrom = movePieceFrom;
-        this.movePieceTo = movePieceTo;
+    private MinimaxAction(int move) {
+        this.move = move;
     }
 
     @Override
@@ -38,64 +35,56 @@ public class MinimaxAction implements Action<MinimaxState, MinimaxAction> {
     public List<Function<Board, Move>> makeChain(Piece toMove) {
         List<Function<Board, Move>> moves = new LinkedList<>();
 
-        if (placePiece != null) {
-            moves.add(board -> PlacePiece.createLegal(toMove, board.getPoint(placePiece)));
+        if (isPlacePiece()) {
+            moves.add(board -> PlacePiece.createLegal(toMove, board.getPoint(getPlacePiece())));
         }
-        if (movePieceFrom != null && movePieceTo != null) {
-            moves.add(board -> MovePiece.createLegal(toMove, board.getPoint(movePieceFrom), board.getPoint(movePieceTo),
-                    board.getOccupiedPoints(toMove).size() == 3));
+        if (isMovePiece()) {
+            moves.add(board -> MovePiece.createLegal(toMove, board.getPoint(getMovePieceFrom()), board.getPoint(getMovePieceTo()),
+                    board.count(toMove) == 3));
         }
-        if (capturePiece != null) {
-            moves.add(board -> CapturePiece.createLegal(toMove, board.getPoint(capturePiece)));
+        if (isCapturePiece()) {
+            moves.add(board -> CapturePiece.createLegal(toMove, board.getPoint(getCapturePiece())));
         }
 
         return moves;
     }
 
     MinimaxAction withCapture(Coordinate capturePiece) {
-        this.capturePiece = capturePiece;
+        this.move = PackedMove.withCapture(move, capturePiece == null ? PackedMove.NONE : capturePiece.getIndex());
         return this;
     }
 
+    public int getPackedMove() {
+        return move;
+    }
+
     public Coordinate getPlacePiece() {
-        return placePiece;
+        return isPlacePiece() ? coordinate(PackedMove.to(move)) : null;
     }
 
     public Coordinate getMovePieceFrom() {
-        return movePieceFrom;
+        return isMovePiece() ? coordinate(PackedMove.from(move)) : null;
     }
 
     public Coordinate getMovePieceTo() {
-        return movePieceTo;
+        return isMovePiece() ? coordinate(PackedMove.to(move)) : null;
     }
 
     public Coordinate getCapturePiece() {
-        return capturePiece;
+        return coordinate(PackedMove.capture(move));
     }
 
-    public boolean isPlacePiece() { return placePiece != null; }
+    public boolean isPlacePiece() { return PackedMove.isPlacePiece(move); }
 
-    public boolean isMovePiece() { return movePieceFrom != null && movePieceTo != null; }
+    public boolean isMovePiece() { return PackedMove.isMovePiece(move); }
 
-    public boolean isCapturePiece() { return capturePiece != null; }
+    public boolean isCapturePiece() { return PackedMove.isCapturePiece(move); }
 
     public String pretty() {
-        StringBuilder sb = new StringBuilder();
-
-        if (placePiece != null) {
-            sb.append(placePiece.pretty());
-        }
-        else if (movePieceFrom != null && movePieceTo != null) {
-            sb.append(movePieceFrom.pretty()).append("-").append(movePieceTo.pretty());
-        }
-        else {
+        if (PackedMove.to(move) == PackedMove.NONE) {
             return "invalid";
         }
-
-        if (capturePiece != null) {
-            sb.append("x").append(capturePiece.pretty());
-        }
-        return sb.toString();
+        return PackedMove.pretty(move);
     }
 
     @Override public String toString() {
@@ -107,22 +96,31 @@ public class MinimaxAction implements Action<MinimaxState, MinimaxAction> {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         MinimaxAction that = (MinimaxAction) o;
-        return Objects.equals(placePiece, that.placePiece) &&
-               Objects.equals(movePieceFrom, that.movePieceFrom) &&
-               Objects.equals(movePieceTo, that.movePieceTo) &&
-               Objects.equals(capturePiece, that.capturePiece);
+        return move == that.move;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(placePiece, movePieceFrom, movePieceTo, capturePiece);
+        return move;
+    }
+
+    private static Coordinate coordinate(int index) {
+        return index == PackedMove.NONE ? null : Coordinate.get(index);
+    }
+
+    private static int index(Coordinate coordinate) {
+        return coordinate == null ? PackedMove.NONE : coordinate.getIndex();
+    }
+
+    public static MinimaxAction fromPackedMove(int move) {
+        return new MinimaxAction(move);
     }
 
     static MinimaxAction fromPlacePiece(Coordinate placePiece) {
-        return new MinimaxAction(placePiece);
+        return new MinimaxAction(PackedMove.placePiece(index(placePiece)));
     }
 
     static MinimaxAction fromMovePiece(Coordinate movePieceFrom, Coordinate movePieceTo) {
-        return new MinimaxAction(movePieceFrom, movePieceTo);
+        return new MinimaxAction(PackedMove.movePiece(index(movePieceFrom), index(movePieceTo)));
     }
 }
@@ -2,21 +2,14 @@ package info.jayharris.ninemensmorris.minimax;
 
 import info.jayharris.minimax.State;
 import info.jayharris.ninemensmorris.Board;
-import info.jayharris.ninemensmorris.Board.Mill;
-import info.jayharris.ninemensmorris.Board.Point;
-import info.jayharris.ninemensmorris.Coordinate;
 import info.jayharris.ninemensmorris.Piece;
 import info.jayharris.ninemensmorris.StalemateChecker;
+import info.jayharris.ninemensmorris.Zobrist;
 import info.jayharris.ninemensmorris.player.BasePlayer;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.Objects;
-import java.util.Set;
-import java.util.function.Function;
-import java.util.function.Predicate;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.List;
 
 // TODO: Can this class be consolidated into MinimaxPlayer?
 /**
@@ -50,75 +43,23 @@ public class MinimaxState implements State<MinimaxState, MinimaxAction> {
      */
     @Override
     public Collection<MinimaxAction> actions() {
-        if (playerPieces > 0) {
-            return tryPlacePiece();
-        }
-        return tryMovePiece();
-    }
-
-    @Override
-    public boolean terminalTest() {
-        return isStalemate() || actions().isEmpty();
-    }
-
-    private Set<MinimaxAction> tryPlacePiece() {
-        return board.getUnoccupiedPoints().stream()
-                .flatMap(this::generateActionsFromPlacePiece)
-                .collect(Collectors.toSet());
-    }
-
-    private Set<MinimaxAction> tryMovePiece() {
-        Set<Point> initialPoints = board.getOccupiedPoints(toMove);
-
-        if (initialPoints.size() < 3) {
-            return Collections.emptySet();
-        }
-
-        return initialPoints.stream()
-                .flatMap(initialPoints.size() == 3 ? this::tryMovePieceAnywhere : this::tryMovePieceToNeighbor)
-                .collect(Collectors.toSet());
-    }
-
-    private Stream<MinimaxAction> tryMovePieceToNeighbor(Point initialPoint) {
-        return initialPoint.getNeighbors().stream()
-                .filter(Point::isUnoccupied)
-                .flatMap(dest -> generateActionsFromMovePiece(initialPoint, dest));
-    }
-
-    private Stream<MinimaxAction> tryMovePieceAnywhere(Point initialPoint) {
-        return board.getUnoccupiedPoints().stream()
-                .flatMap(this.generateActionsFromMovePiece(initialPoint));
-    }
-
-    private Stream<MinimaxAction> generateActionsFromPlacePiece(Point point) {
-        boolean captures = board.getMillsAt(point).stream()
-                .anyMatch(willCompleteMill(point));
-        Coordinate coordinate = point.getCoordinate();
-
-        if (captures) {
-            return board.getOccupiedPoints(toMove.opposite()).stream()
-                    .map(Point::getCoordinate)
-                    .map(capture -> MinimaxAction.fromPlacePiece(coordinate).withCapture(capture));
-        }
-        return Stream.of(MinimaxAction.fromPlacePiece(coordinate));
+        return actions(board, toMove, playerPieces);
     }
 
-    private Stream<MinimaxAction> generateActionsFromMovePiece(Point initial, Point destination) {
-        boolean captures = board.getMillsAt(destination).stream()
-                .filter(mill -> !mill.getPoints().contains(initial))
-                .anyMatch(willCompleteMill(destination));
-        Coordinate movePieceFrom = initial.getCoordinate(), movePieceTo = destination.getCoordinate();
+    static Collection<MinimaxAction> actions(Board board, Piece toMove, int playerPieces) {
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int count = MoveGenerator.generate(board, toMove, playerPieces, moves, 0);
 
-        if (captures) {
-            return board.getOccupiedPoints(toMove.opposite()).stream()
-                    .map(Point::getCoordinate)
-                    .map(capture -> MinimaxAction.fromMovePiece(movePieceFrom, movePieceTo).withCapture(capture));
+        List<MinimaxAction> actions = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            actions.add(MinimaxAction.fromPackedMove(moves[i]));
         }
-        return Stream.of(MinimaxAction.fromMovePiece(movePieceFrom, movePieceTo));
+        return actions;
     }
 
-    private Function<Point, Stream<MinimaxAction>> generateActionsFromMovePiece(Point initialPoint) {
-        return destination -> generateActionsFromMovePiece(initialPoint, destination);
+    @Override
+    public boolean terminalTest() {
+        return isStalemate() || !MoveGenerator.hasMoves(board, toMove, playerPieces);
     }
 
     public Piece getToMove() {
@@ -137,11 +78,18 @@ public class MinimaxState implements State<MinimaxState, MinimaxAction> {
         return stalemateChecker.isStalemate();
     }
 
-    private Predicate<Mill> willCompleteMill(Point point) {
-        return mill -> mill.getPoints().stream()
-                .filter(Predicate.isEqual(point).negate())
-                .map(Point::getPiece)
-                .allMatch(Predicate.isEqual(toMove));
+    StalemateChecker getStalemateChecker() {
+        return stalemateChecker;
+    }
+
+    /**
+     * Gets the Zobrist key of this state: the board, the player to move, and the
+     * number of pieces that player has left to place.
+     *
+     * @return the key
+     */
+    public long getKey() {
+        return board.getKey() ^ Zobrist.toMove(toMove) ^ Zobrist.piecesInHand(toMove, playerPieces);
     }
 
     @Override
@@ -156,7 +104,7 @@ public class MinimaxState implements State<MinimaxState, MinimaxAction> {
 
     @Override
     public int hashCode() {
-        return Objects.hash(getBoard(), getToMove(), getPlayerPieces());
+        return Long.hashCode(getKey());
     }
 
     /**
@@ -171,6 +119,19 @@ public class MinimaxState implements State<MinimaxState, MinimaxAction> {
         return new MinimaxState(board, player.getPiece(), player.getStartingPieces(), stalemateChecker);
     }
 
+    /**
+     * Creates a MinimaxState from its parts.
+     *
+     * @param board the state's board
+     * @param toMove the player to move
+     * @param playerPieces the number of pieces {@code toMove} has left to place
+     * @param stalemateChecker contains the history of states visited
+     * @return a new state
+     */
+    public static MinimaxState create(Board board, Piece toMove, int playerPieces, StalemateChecker stalemateChecker) {
+        return new MinimaxState(board, toMove, playerPieces, stalemateChecker);
+    }
+
     /**
      * Creates a successor state from a predecessor state and an action.
      *
@@ -190,8 +151,19 @@ public class MinimaxState implements State<MinimaxState, MinimaxAction> {
             stalemateChecker.accept(copy);
         }
 
-        int startingPieces = Math.max(0, predecessor.getPlayerPieces() - (currentPlayer == BasePlayer.FIRST_PLAYER ? 0 : 1));
+        int startingPieces = nextPlayerPieces(predecessor.getPlayerPieces(), currentPlayer);
 
         return new MinimaxState(copy, currentPlayer.opposite(), startingPieces, stalemateChecker);
     }
+
+    /**
+     * Gets the number of pieces the next player has left to place.
+     *
+     * @param playerPieces the number of pieces the current player has left to place
+     * @param currentPlayer the current player
+     * @return the number of pieces the next player has left to place
+     */
+    static int nextPlayerPieces(int playerPieces, Piece currentPlayer) {
+        return Math.max(0, playerPieces - (currentPlayer == BasePlayer.FIRST_PLAYER ? 0 : 1));
+    }
 }
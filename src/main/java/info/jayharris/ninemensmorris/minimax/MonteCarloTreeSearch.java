@@ -0,0 +1,379 @@
+package info.jayharris.ninemensmorris.minimax;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import info.jayharris.minimax.search.Search;
+import info.jayharris.ninemensmorris.Board;
+import info.jayharris.ninemensmorris.Piece;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * A Monte Carlo tree search: instead of evaluating states with a heuristic, it
+ * plays random games ("playouts") from them, and grows a tree of the states where
+ * the playouts have gone best.
+ *
+ * Each iteration walks down the tree from the root by UCT, picking the child
+ * with the best average result plus an exploration bonus for children that
+ * haven't been tried much. It adds one child to the tree, plays a random game
+ * from there with a {@link RandomPlayout}, and adds the result (1 for a win,
+ * 1/2 for a draw, 0 for a loss) to every state on the way back up.
+ *
+ * A state can have hundreds of moves once captures are counted, so a state
+ * isn't expanded all at once: with "progressive widening", it gets another child
+ * only as often as its number of visits grows past {@code 2 * sqrt(visits)}. The
+ * children are added in the order {@link KillerHistoryMoveOrderer} puts them in,
+ * so captures and blocks come first.
+ *
+ * With more than one thread, the threads can share one tree ({@link
+ * Parallelism#TREE}), or grow a tree each and add up the visits to each move at
+ * the end ({@link Parallelism#ROOT}). A thread walking down the tree counts a
+ * visit to each state right away, as a loss until the playout finishes ("virtual
+ * loss"), so other threads spread out over the tree rather than all following it.
+ *
+ * The budget counts playouts as nodes. The move returned is the root's most
+ * visited child.
+ */
+public class MonteCarloTreeSearch implements Search<MinimaxState, MinimaxAction>, AutoCloseable {
+
+    public enum Parallelism { TREE, ROOT }
+
+    public static final double DEFAULT_EXPLORATION = Math.sqrt(2);
+
+    /**
+     * a state with {@code n} visits can have {@code WIDENING * sqrt(n)} children
+     */
+    static final double WIDENING = 2;
+
+    /**
+     * a playout that goes this many plies without ending is a draw
+     */
+    static final int MAX_PLAYOUT_PLIES = 200;
+
+    private static final double WIN = 1, DRAW = 0.5, LOSS = 0;
+
+    private final SearchBudget budget;
+    private final int threads;
+    private final Parallelism parallelism;
+    private final double exploration;
+
+    private final ExecutorService executor;
+    private final AtomicLong playouts = new AtomicLong();
+
+    private int visits;
+    private double score;
+
+    public MonteCarloTreeSearch(SearchBudget budget) {
+        this(budget, 1, Parallelism.TREE);
+    }
+
+    public MonteCarloTreeSearch(SearchBudget budget, int threads, Parallelism parallelism) {
+        this(budget, threads, parallelism, DEFAULT_EXPLORATION);
+    }
+
+    public MonteCarloTreeSearch(SearchBudget budget, int threads, Parallelism parallelism, double exploration) {
+        checkArgument(threads > 0, "There must be at least one thread.");
+        checkArgument(exploration >= 0, "The exploration constant can't be negative.");
+
+        this.budget = budget;
+        this.threads = threads;
+        this.parallelism = parallelism;
+        this.exploration = exploration;
+        this.executor = Executors.newFixedThreadPool(Math.max(1, threads - 1),
+                new ThreadFactoryBuilder().setNameFormat("mcts-%d").setDaemon(true).build());
+    }
+
+    @Override
+    public MinimaxAction perform(MinimaxState initialState) {
+        SearchState state = SearchState.create(initialState);
+        long start = System.nanoTime();
+        playouts.set(0);
+
+        Node shared = new Node(PackedMove.NO_MOVE);
+        List<Node> roots = new ArrayList<>();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; ++i) {
+            Node root = parallelism == Parallelism.TREE ? shared : new Node(PackedMove.NO_MOVE);
+            roots.add(root);
+
+            if (i > 0) {
+                futures.add(executor.submit(new Worker(SearchState.copy(state), root, start, i)));
+            }
+        }
+        new Worker(state, roots.get(0), start, 0).run();
+
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            catch (ExecutionException e) {
+                throw new IllegalStateException("A playout thread failed.", e.getCause());
+            }
+        }
+
+        return choose(parallelism == Parallelism.TREE ? roots.subList(0, 1) : roots);
+    }
+
+    /**
+     * Picks the most visited move, counting the visits from every tree.
+     */
+    private MinimaxAction choose(List<Node> roots) {
+        Map<Integer, int[]> visits = new LinkedHashMap<>();
+        Map<Integer, double[]> values = new LinkedHashMap<>();
+        for (Node root : roots) {
+            for (Node child : root.children) {
+                visits.computeIfAbsent(child.move, move -> new int[1])[0] += child.visits;
+                values.computeIfAbsent(child.move, move -> new double[1])[0] += child.value;
+            }
+        }
+
+        int best = PackedMove.NO_MOVE;
+        this.visits = 0;
+        this.score = Double.NaN;
+        for (Map.Entry<Integer, int[]> entry : visits.entrySet()) {
+            int v = entry.getValue()[0];
+            if (best == PackedMove.NO_MOVE || v > this.visits) {
+                best = entry.getKey();
+                this.visits = v;
+                this.score = v == 0 ? Double.NaN : values.get(best)[0] / v;
+            }
+        }
+        return best == PackedMove.NO_MOVE ? null : MinimaxAction.fromPackedMove(best);
+    }
+
+    /**
+     * Gets the number of playouts during the last call to {@link #perform}, over
+     * all threads.
+     *
+     * @return the number of playouts
+     */
+    public long getPlayouts() {
+        return playouts.get();
+    }
+
+    /**
+     * Gets the number of visits to the move returned by the last call to
+     * {@link #perform}.
+     *
+     * @return the number of visits
+     */
+    public int getVisits() {
+        return visits;
+    }
+
+    /**
+     * Gets the average result of the playouts through the move returned by the
+     * last call to {@link #perform}, for the player to move: 1 if they all won,
+     * 0 if they all lost.
+     *
+     * @return the score
+     */
+    public double getScore() {
+        return score;
+    }
+
+    /**
+     * Stops the playout threads. The search can't be performed after it's closed.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * A state in the tree. Everything but the move is guarded by the node's lock,
+     * but {@code visits} and {@code value} are volatile so that a parent's UCT can
+     * read them without taking each child's lock.
+     */
+    static final class Node {
+
+        final int move;
+        final List<Node> children = new ArrayList<>(4);
+
+        /**
+         * the moves not yet added as children, best first, or {@code null} until
+         * the node is first walked through
+         */
+        int[] untried;
+        int untriedCount, nextUntried;
+
+        /**
+         * the number of visits, including ones whose playouts haven't finished yet
+         */
+        volatile int visits;
+
+        /**
+         * the total result for the player who made {@link #move}
+         */
+        volatile double value;
+
+        Node(int move) {
+            this.move = move;
+        }
+
+        synchronized void visit() {
+            ++visits;
+        }
+
+        synchronized void update(double result) {
+            value += result;
+        }
+    }
+
+    private class Worker implements Runnable {
+
+        private final SearchState state;
+        private final Node root;
+        private final long start;
+
+        private final RandomPlayout kernel;
+        private final MoveOrderer orderer = new KillerHistoryMoveOrderer();
+        private final int[] moves = new int[MoveGenerator.MAX_MOVES];
+        private final int[] made = new int[TranspositionTable.MAX_DEPTH];
+        private final List<Node> path = new ArrayList<>();
+
+        Worker(SearchState state, Node root, long start, int index) {
+            this.state = state;
+            this.root = root;
+            this.start = start;
+            this.kernel = new RandomPlayout(new SplittableRandom(0x9E3779B97F4A7C15L * (index + 1)), MAX_PLAYOUT_PLIES);
+        }
+
+        @Override
+        public void run() {
+            while (!budget.isExhausted(start, playouts.get()) && !Thread.currentThread().isInterrupted()) {
+                if (!iterate()) {
+                    break;
+                }
+                playouts.incrementAndGet();
+            }
+        }
+
+        /**
+         * Runs one playout.
+         *
+         * @return false iff the root has no moves
+         */
+        private boolean iterate() {
+            path.clear();
+            path.add(root);
+            root.visit();
+
+            int depth = 0;
+            Node node = root;
+            while (depth < TranspositionTable.MAX_DEPTH && !state.isStalemate()) {
+                Node child;
+                boolean expanded;
+                synchronized (node) {
+                    if (node.untried == null) {
+                        expand(node, depth);
+                    }
+                    if (node.untriedCount == 0) {
+                        break;
+                    }
+
+                    expanded = node.children.size() < WIDENING * Math.sqrt(node.visits)
+                            && node.nextUntried < node.untriedCount;
+                    if (expanded) {
+                        child = new Node(node.untried[node.nextUntried++]);
+                        node.children.add(child);
+                    }
+                    else {
+                        child = select(node);
+                    }
+                }
+
+                child.visit();
+                path.add(child);
+                state.make(child.move);
+                made[depth++] = child.move;
+                node = child;
+                if (expanded) {
+                    break;
+                }
+            }
+
+            if (depth == 0 && root.untriedCount == 0) {
+                return false;
+            }
+
+            // the result for the player to move at the end of the path
+            double result = playout();
+            for (int i = path.size() - 1; i >= 0; --i) {
+                // Each node's value is for the player who moved into it.
+                result = WIN - result;
+                path.get(i).update(result);
+            }
+
+            while (depth > 0) {
+                state.unmake(made[--depth]);
+            }
+            return true;
+        }
+
+        private void expand(Node node, int ply) {
+            int n = state.generate(moves, 0);
+            orderer.order(state, moves, n, Math.min(ply, TranspositionTable.MAX_DEPTH), PackedMove.NO_MOVE);
+            node.untried = Arrays.copyOf(moves, n);
+            node.untriedCount = n;
+        }
+
+        /**
+         * the child with the best UCT score
+         */
+        private Node select(Node node) {
+            double logVisits = Math.log(Math.max(1, node.visits));
+
+            Node best = null;
+            double bestScore = Double.NEGATIVE_INFINITY;
+            for (Node child : node.children) {
+                int v = child.visits;
+                double score = v == 0 ? Double.POSITIVE_INFINITY
+                        : child.value / v + exploration * Math.sqrt(logVisits / v);
+                if (score > bestScore) {
+                    best = child;
+                    bestScore = score;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Plays a random game from the state at the end of the path.
+         *
+         * @return the result for the player to move at the start of the playout
+         */
+        private double playout() {
+            if (state.isStalemate()) {
+                return DRAW;
+            }
+
+            Board board = state.getBoard();
+            Piece toMove = state.getToMove();
+            switch (kernel.play(board.getOccupancy(toMove), board.getOccupancy(toMove.opposite()), toMove,
+                    state.getPlayerPieces())) {
+                case RandomPlayout.WIN:
+                    return WIN;
+                case RandomPlayout.LOSS:
+                    return LOSS;
+                default:
+                    return DRAW;
+            }
+        }
+    }
+}
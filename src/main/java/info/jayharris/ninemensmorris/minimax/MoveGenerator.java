@@ -0,0 +1,180 @@
+package info.jayharris.ninemensmorris.minimax;
+
+import info.jayharris.ninemensmorris.Board;
+import info.jayharris.ninemensmorris.BoardUtils;
+import info.jayharris.ninemensmorris.Coordinate;
+import info.jayharris.ninemensmorris.Piece;
+
+/**
+ * Generates legal moves as {@link PackedMove}s into a caller-provided buffer,
+ * without allocating.
+ *
+ * A move that completes a mill is expanded into one move per opponent piece that
+ * could be captured.
+ */
+public final class MoveGenerator {
+
+    /**
+     * an upper bound on the number of legal moves in any position: three flying
+     * pieces with 21 destinations each, times nine pieces to capture
+     */
+    public static final int MAX_MOVES = 3 * 21 * 9;
+
+    private MoveGenerator() { }
+
+    /**
+     * Writes the legal moves for {@code toMove} into {@code buffer}.
+     *
+     * @param board the board
+     * @param toMove the player to move
+     * @param playerPieces the number of pieces {@code toMove} has left to place
+     * @param buffer the buffer, which must have room for {@link #MAX_MOVES} moves after {@code offset}
+     * @param offset the index in {@code buffer} of the first move
+     * @return the number of moves written
+     */
+    public static int generate(Board board, Piece toMove, int playerPieces, int[] buffer, int offset) {
+        return generate(board.getOccupancy(toMove), board.getOccupancy(toMove.opposite()), playerPieces, buffer, offset);
+    }
+
+    /**
+     * Writes the legal moves for the player with pieces on {@code mine} into
+     * {@code buffer}.
+     *
+     * @param mine the points occupied by the player to move
+     * @param theirs the points occupied by the other player
+     * @param playerPieces the number of pieces the player to move has left to place
+     * @param buffer the buffer, which must have room for {@link #MAX_MOVES} moves after {@code offset}
+     * @param offset the index in {@code buffer} of the first move
+     * @return the number of moves written
+     */
+    public static int generate(int mine, int theirs, int playerPieces, int[] buffer, int offset) {
+        int unoccupied = ~(mine | theirs) & Board.ALL_POINTS;
+
+        if (playerPieces > 0) {
+            return placePiece(mine, theirs, unoccupied, buffer, offset);
+        }
+
+        int count = Integer.bitCount(mine);
+        if (count < 3) {
+            return 0;
+        }
+        return movePiece(mine, theirs, unoccupied, count == 3, buffer, offset);
+    }
+
+    /**
+     * Determines whether {@code toMove} has any legal move.
+     *
+     * @param board the board
+     * @param toMove the player to move
+     * @param playerPieces the number of pieces {@code toMove} has left to place
+     * @return true iff {@link #generate} would write at least one move
+     */
+    public static boolean hasMoves(Board board, Piece toMove, int playerPieces) {
+        int unoccupied = board.getUnoccupied();
+
+        if (playerPieces > 0) {
+            return unoccupied != 0;
+        }
+
+        int mine = board.getOccupancy(toMove);
+        int count = Integer.bitCount(mine);
+        if (count < 3) {
+            return false;
+        }
+        return count == 3 ? unoccupied != 0 : (BoardUtils.neighborsOf(mine) & unoccupied) != 0;
+    }
+
+    /**
+     * Determines whether {@code toMove} can complete a mill with their next move,
+     * i.e. whether some mill has two of their pieces and an empty third point that
+     * one of their other pieces can reach.
+     *
+     * @param board the board
+     * @param toMove the player to move
+     * @param playerPieces the number of pieces {@code toMove} has left to place
+     * @return true iff {@link #generate} would write a move that completes a mill
+     */
+    public static boolean canCloseMill(Board board, Piece toMove, int playerPieces) {
+        int mine = board.getOccupancy(toMove), unoccupied = board.getUnoccupied();
+
+        int count = Integer.bitCount(mine);
+        if (playerPieces == 0 && count < 3) {
+            return false;
+        }
+        boolean anywhere = playerPieces > 0 || count == 3;
+
+        for (int mill : Coordinate.MILLS) {
+            int open = mill & unoccupied;
+            if (open == 0 || Integer.bitCount(mine & mill) != 2) {
+                continue;
+            }
+            // A piece sliding in has to come from outside the mill.
+            if (anywhere || (Coordinate.NEIGHBOR_MASKS[Integer.numberOfTrailingZeros(open)] & mine & ~mill) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int placePiece(int mine, int theirs, int unoccupied, int[] buffer, int offset) {
+        int n = offset;
+
+        for (int m = unoccupied; m != 0; m &= m - 1) {
+            int to = Integer.numberOfTrailingZeros(m);
+            n = add(PackedMove.placePiece(to), completesMill(mine, to) ? theirs : 0, buffer, n);
+        }
+        return n - offset;
+    }
+
+    private static int movePiece(int mine, int theirs, int unoccupied, boolean canFly, int[] buffer, int offset) {
+        int n = offset;
+
+        for (int m = mine; m != 0; m &= m - 1) {
+            int from = Integer.numberOfTrailingZeros(m);
+            int others = mine & ~(1 << from);
+            int destinations = canFly ? unoccupied : Coordinate.NEIGHBOR_MASKS[from] & unoccupied;
+
+            for (int d = destinations; d != 0; d &= d - 1) {
+                int to = Integer.numberOfTrailingZeros(d);
+                n = add(PackedMove.movePiece(from, to), completesMill(others, to) ? theirs : 0, buffer, n);
+            }
+        }
+        return n - offset;
+    }
+
+    /**
+     * Writes {@code move} to {@code buffer}, or, if {@code captures} isn't empty,
+     * one copy of {@code move} capturing each point in {@code captures}.
+     *
+     * @return the index after the last move written
+     */
+    private static int add(int move, int captures, int[] buffer, int n) {
+        if (captures == 0) {
+            buffer[n++] = move;
+            return n;
+        }
+
+        for (int m = captures; m != 0; m &= m - 1) {
+            buffer[n++] = PackedMove.withCapture(move, Integer.numberOfTrailingZeros(m));
+        }
+        return n;
+    }
+
+    /**
+     * Determines whether adding a piece at {@code to} to the pieces in {@code mask}
+     * completes a mill.
+     *
+     * @param mask the player's pieces, not counting the piece being moved
+     * @param to the index of the point the piece is put on
+     * @return true iff the piece completes a mill
+     */
+    public static boolean completesMill(int mask, int to) {
+        int withPiece = mask | (1 << to);
+        for (int mill : Coordinate.MILLS_AT[to]) {
+            if ((withPiece & mill) == mill) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
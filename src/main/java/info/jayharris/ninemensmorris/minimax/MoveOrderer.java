@@ -0,0 +1,109 @@
+package info.jayharris.ninemensmorris.minimax;
+
+/**
+ * Decides the order in which a search tries the moves at a state.
+ *
+ * Alpha-beta pruning works best when the best move is tried first, so a search
+ * asks the orderer to sort the moves before it tries them, and tells it which
+ * move caused each cutoff so that it can learn from it.
+ *
+ * The orderer also counts cutoffs, and how many of them came from the first move
+ * tried: the closer {@link #getFirstMoveCutoffRate()} is to one, the better the
+ * ordering.
+ *
+ * An orderer keeps state between calls, so each search needs its own.
+ */
+public abstract class MoveOrderer {
+
+    private long cutoffs, firstMoveCutoffs;
+
+    /**
+     * Sorts the first {@code n} moves in {@code moves}, best first.
+     *
+     * @param state the state the moves are made from
+     * @param moves the moves
+     * @param n the number of moves
+     * @param ply the distance from the root of the search
+     * @param hashMove the best move from the transposition table, or any move that
+     *                 isn't legal if there isn't one
+     */
+    public abstract void order(SearchState state, int[] moves, int n, int ply, int hashMove);
+
+    /**
+     * Records that {@code move} caused a cutoff.
+     *
+     * @param state the state the move was made from
+     * @param move the move
+     * @param index the index of the move in the order it was tried
+     * @param ply the distance from the root of the search
+     * @param depth the number of plies left to search at the state
+     */
+    public final void cutoff(SearchState state, int move, int index, int ply, int depth) {
+        ++cutoffs;
+        if (index == 0) {
+            ++firstMoveCutoffs;
+        }
+        learn(state, move, ply, depth);
+    }
+
+    /**
+     * Learns from a cutoff caused by {@code move}. By default, does nothing.
+     *
+     * @see #cutoff
+     */
+    protected void learn(SearchState state, int move, int ply, int depth) {
+    }
+
+    /**
+     * Forgets everything learned from cutoffs, and resets the counters.
+     */
+    public void clear() {
+        cutoffs = firstMoveCutoffs = 0;
+    }
+
+    public long getCutoffs() {
+        return cutoffs;
+    }
+
+    public long getFirstMoveCutoffs() {
+        return firstMoveCutoffs;
+    }
+
+    /**
+     * Gets the fraction of cutoffs that came from the first move tried.
+     *
+     * @return the fraction, or zero if there haven't been any cutoffs
+     */
+    public double getFirstMoveCutoffRate() {
+        return cutoffs == 0 ? 0.0 : (double) firstMoveCutoffs / cutoffs;
+    }
+
+    /**
+     * Creates an orderer that only moves the hash move to the front, and otherwise
+     * leaves the moves in the order {@link MoveGenerator} generates them.
+     *
+     * @return a new orderer
+     */
+    public static MoveOrderer hashMoveFirst() {
+        return new MoveOrderer() {
+            @Override
+            public void order(SearchState state, int[] moves, int n, int ply, int hashMove) {
+                promote(moves, n, hashMove);
+            }
+        };
+    }
+
+    /**
+     * Moves {@code move}, if it's among the first {@code n} moves, to the front of
+     * {@code moves} so that it's searched first.
+     */
+    static void promote(int[] moves, int n, int move) {
+        for (int i = 0; i < n; ++i) {
+            if (moves[i] == move) {
+                System.arraycopy(moves, 0, moves, 1, i);
+                moves[0] = move;
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package info.jayharris.ninemensmorris.minimax;
+
+import info.jayharris.minimax.search.Search;
+import info.jayharris.ninemensmorris.Piece;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.ToDoubleFunction;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * A depth-limited alpha-beta search, in negamax form, that remembers the states it
+ * has searched in a {@link TranspositionTable}.
+ *
+ * Unlike {@link NineMensMorrisAlphaBetaPruningSearch}, this search makes and
+ * unmakes moves on a single {@link SearchState}. The table pays off most in the
+ * "place piece" phase, where placing the same pieces in a different order leads
+ * to the same state. It can be kept across searches, but only for one player,
+ * since the heuristic function is relative to {@code myPiece}.
+ *
+ * Scores inside the search are relative to the player to move: a stalemate is
+ * worth zero, and having no legal move is a loss.
+ *
+ * Moves are tried in the order a {@link MoveOrderer} gives; by default, the move
+ * from the table first and the rest in the order they're generated.
+ */
+public class NegamaxSearch implements Search<MinimaxState, MinimaxAction> {
+
+    private final int depth;
+    private final Piece myPiece;
+    private final TranspositionTable table;
+    private final MoveOrderer orderer;
+    private final SearchContext context;
+
+    private SearchState state;
+
+    private SearchBudget budget;
+    private long startTime;
+    private AtomicBoolean stop;
+    private boolean aborted;
+
+    private double score;
+    private long nodes;
+
+    public NegamaxSearch(int depth, ToDoubleFunction<MinimaxState> heuristic, Piece myPiece, TranspositionTable table) {
+        this(depth, heuristic, myPiece, table, MoveOrderer.hashMoveFirst());
+    }
+
+    public NegamaxSearch(int depth, ToDoubleFunction<MinimaxState> heuristic, Piece myPiece, TranspositionTable table,
+                         MoveOrderer orderer) {
+        checkArgument(depth > 0 && depth <= TranspositionTable.MAX_DEPTH,
+                "Depth must be between 1 and %s.", TranspositionTable.MAX_DEPTH);
+
+        this.depth = depth;
+        this.myPiece = myPiece;
+        this.table = table;
+        this.orderer = orderer;
+        this.context = new SearchContext(heuristic, myPiece, TranspositionTable.MAX_DEPTH + 1);
+    }
+
+    @Override
+    public MinimaxAction perform(MinimaxState initialState) {
+        start(initialState, SearchBudget.UNLIMITED);
+
+        int move = root(depth, PackedMove.NO_MOVE);
+        return move == PackedMove.NO_MOVE ? null : MinimaxAction.fromPackedMove(move);
+    }
+
+    /**
+     * Prepares to search from {@code initialState} with calls to {@link #root}.
+     *
+     * @param initialState the state to search from
+     * @param budget when to give up searching
+     */
+    void start(MinimaxState initialState, SearchBudget budget) {
+        start(initialState, budget, new AtomicBoolean());
+    }
+
+    /**
+     * Prepares to search from {@code initialState} with calls to {@link #root},
+     * until the budget runs out or another thread sets {@code stop}.
+     *
+     * @param initialState the state to search from
+     * @param budget when to give up searching
+     * @param stop when set, the search gives up
+     */
+    void start(MinimaxState initialState, SearchBudget budget, AtomicBoolean stop) {
+        state = SearchState.create(initialState);
+        this.budget = budget;
+        this.stop = stop;
+        startTime = System.nanoTime();
+        aborted = false;
+        nodes = 0;
+        orderer.clear();
+    }
+
+    /**
+     * Searches {@code depth} plies from the root.
+     *
+     * If the budget runs out or the search is told to stop, it stops, and {@link #isAborted()} becomes
+     * true. The move returned is then the best of the moves searched so far.
+     *
+     * @param depth the depth
+     * @param firstMove a move to search first, e.g. the best move from a shallower search
+     * @return the best move, or {@link PackedMove#NO_MOVE} if there isn't a legal move
+     */
+    int root(int depth, int firstMove) {
+        ++nodes;
+        int[] moves = context.buffer(0);
+        int n = state.isStalemate() ? 0 : state.generate(moves, 0);
+
+        long key = state.getKey();
+        orderer.order(state, moves, n, 0, TranspositionTable.move(table.probe(key)));
+        MoveOrderer.promote(moves, n, firstMove);
+
+        double alpha = Double.NEGATIVE_INFINITY, best = Double.NEGATIVE_INFINITY;
+        int bestMove = PackedMove.NO_MOVE;
+
+        for (int i = 0; i < n; ++i) {
+            state.make(moves[i]);
+            double value = -search(depth - 1, Double.NEGATIVE_INFINITY, -alpha, 1);
+            state.unmake(moves[i]);
+
+            if (aborted) {
+                break;
+            }
+            if (bestMove == PackedMove.NO_MOVE || value > best) {
+                best = value;
+                bestMove = moves[i];
+                alpha = Math.max(alpha, value);
+            }
+        }
+
+        if (bestMove != PackedMove.NO_MOVE && !aborted) {
+            table.store(key, best, depth, TranspositionTable.EXACT, bestMove);
+        }
+
+        score = state.getToMove() == myPiece ? best : -best;
+        return bestMove;
+    }
+
+    private double search(int depth, double alpha, double beta, int ply) {
+        if ((++nodes & 0x3ff) == 0 && (stop.get() || budget.isExhausted(startTime, nodes))) {
+            aborted = true;
+        }
+        if (aborted) {
+            return 0.0;
+        }
+
+        if (state.isStalemate()) {
+            return 0.0;
+        }
+        if (depth <= 0) {
+            return state.terminalTest() ? Double.NEGATIVE_INFINITY : context.evaluate(state);
+        }
+
+        int[] moves = context.buffer(ply);
+        int n = state.generate(moves, 0);
+        if (n == 0) {
+            return Double.NEGATIVE_INFINITY;
+        }
+
+        long key = state.getKey();
+        long entry = table.probe(key);
+        if (entry != 0 && TranspositionTable.depth(entry) >= depth) {
+            double stored = TranspositionTable.score(entry);
+            switch (TranspositionTable.bound(entry)) {
+                case TranspositionTable.EXACT:
+                    return stored;
+                case TranspositionTable.LOWER:
+                    alpha = Math.max(alpha, stored);
+                    break;
+                case TranspositionTable.UPPER:
+                    beta = Math.min(beta, stored);
+                    break;
+            }
+            if (alpha >= beta) {
+                return stored;
+            }
+        }
+        orderer.order(state, moves, n, ply, TranspositionTable.move(entry));
+
+        double alphaOriginal = alpha, best = Double.NEGATIVE_INFINITY;
+        int bestMove = PackedMove.NO_MOVE;
+
+        for (int i = 0; i < n; ++i) {
+            state.make(moves[i]);
+            double value = -search(depth - 1, -beta, -alpha, ply + 1);
+            state.unmake(moves[i]);
+
+            if (aborted) {
+                return 0.0;
+            }
+            if (bestMove == PackedMove.NO_MOVE || value > best) {
+                best = value;
+                bestMove = moves[i];
+            }
+            alpha = Math.max(alpha, best);
+            if (alpha >= beta) {
+                orderer.cutoff(state, moves[i], i, ply, depth);
+                break;
+            }
+        }
+
+        int bound = best <= alphaOriginal ? TranspositionTable.UPPER :
+                best >= beta ? TranspositionTable.LOWER : TranspositionTable.EXACT;
+        table.store(key, best, depth, bound, bestMove);
+
+        return best;
+    }
+
+    boolean isAborted() {
+        return aborted;
+    }
+
+    /**
+     * Gets the score of the action returned by the last search, relative to
+     * {@code myPiece}.
+     *
+     * @return the score
+     */
+    public double getScore() {
+        return score;
+    }
+
+    /**
+     * Gets the number of states visited by the last search.
+     *
+     * @return the number of nodes
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    public MoveOrderer getOrderer() {
+        return orderer;
+    }
+}
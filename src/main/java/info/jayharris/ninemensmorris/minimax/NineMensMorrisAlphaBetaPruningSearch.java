@@ -4,6 +4,7 @@ import info.jayharris.minimax.search.AlphaBetaPruningSearch;
 import info.jayharris.minimax.search.UnknownUtilityException;
 import info.jayharris.minimax.search.cutoff.CutoffTest;
 import info.jayharris.ninemensmorris.Piece;
+import info.jayharris.ninemensmorris.tablebase.Tablebase;
 
 import java.util.function.ToDoubleFunction;
 
@@ -19,8 +20,39 @@ public class NineMensMorrisAlphaBetaPruningSearch extends AlphaBetaPruningSearch
         this.myPiece = myPiece;
     }
 
+    /**
+     * Constructs a search that looks a leaf up in {@code tablebase} before
+     * applying the heuristic to it. A leaf in the tablebase is worth
+     * {@link PrincipalVariationSearch#WIN} less the number of plies to the end of
+     * the game if {@code myPiece} wins, the negative of that if it loses, and zero
+     * if it's a draw.
+     */
+    public NineMensMorrisAlphaBetaPruningSearch(
+            CutoffTest<MinimaxState, MinimaxAction> cutoffTest,
+            ToDoubleFunction<MinimaxState> heuristic,
+            Piece myPiece,
+            Tablebase tablebase) {
+        this(cutoffTest, probeFirst(tablebase, heuristic, myPiece), myPiece);
+    }
+
     @Override
     public double utility(MinimaxState state) throws UnknownUtilityException {
         return Utility.create(myPiece).apply(state);
     }
+
+    private static ToDoubleFunction<MinimaxState> probeFirst(
+            Tablebase tablebase, ToDoubleFunction<MinimaxState> heuristic, Piece myPiece) {
+        return state -> {
+            int result = tablebase.probe(state);
+            if (result == Tablebase.UNKNOWN) {
+                return heuristic.applyAsDouble(state);
+            }
+            if (result == Tablebase.DRAW) {
+                return 0.0;
+            }
+
+            double value = PrincipalVariationSearch.WIN - Tablebase.distance(result);
+            return Tablebase.isWin(result) == (state.getToMove() == myPiece) ? value : -value;
+        };
+    }
 }
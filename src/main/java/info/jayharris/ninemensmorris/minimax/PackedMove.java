@@ -0,0 +1,80 @@
+package info.jayharris.ninemensmorris.minimax;
+
+import info.jayharris.ninemensmorris.Coordinate;
+
+/**
+ * Helpers for moves packed into an {@code int}.
+ *
+ * A packed move holds three coordinate indices of five bits each: the point a
+ * piece moves from (bits 0-4), the point a piece is put on (bits 5-9), and the
+ * point a piece is captured from (bits 10-14). A field that doesn't apply holds
+ * {@link #NONE}, so placing a piece has no "from" and a move that doesn't
+ * complete a mill has no capture.
+ */
+public final class PackedMove {
+
+    public static final int NONE = 31;
+
+    private static final int BITS = 5, MASK = (1 << BITS) - 1;
+    private static final int FROM = 0, TO = BITS, CAPTURE = 2 * BITS;
+
+    /**
+     * a placeholder for no move at all, e.g. when a search hasn't found one
+     */
+    public static final int NO_MOVE = of(NONE, NONE, NONE);
+
+    private PackedMove() { }
+
+    public static int placePiece(int to) {
+        return of(NONE, to, NONE);
+    }
+
+    public static int movePiece(int from, int to) {
+        return of(from, to, NONE);
+    }
+
+    public static int of(int from, int to, int capture) {
+        return from << FROM | to << TO | capture << CAPTURE;
+    }
+
+    public static int withCapture(int move, int capture) {
+        return move & ~(MASK << CAPTURE) | capture << CAPTURE;
+    }
+
+    public static int from(int move) {
+        return move >>> FROM & MASK;
+    }
+
+    public static int to(int move) {
+        return move >>> TO & MASK;
+    }
+
+    public static int capture(int move) {
+        return move >>> CAPTURE & MASK;
+    }
+
+    public static boolean isPlacePiece(int move) {
+        return from(move) == NONE;
+    }
+
+    public static boolean isMovePiece(int move) {
+        return from(move) != NONE;
+    }
+
+    public static boolean isCapturePiece(int move) {
+        return capture(move) != NONE;
+    }
+
+    public static String pretty(int move) {
+        StringBuilder sb = new StringBuilder();
+
+        if (isMovePiece(move)) {
+            sb.append(Coordinate.get(from(move)).pretty()).append("-");
+        }
+        sb.append(Coordinate.get(to(move)).pretty());
+        if (isCapturePiece(move)) {
+            sb.append("x").append(Coordinate.get(capture(move)).pretty());
+        }
+        return sb.toString();
+    }
+}
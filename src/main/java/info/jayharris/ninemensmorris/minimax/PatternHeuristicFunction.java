@@ -0,0 +1,206 @@
+package info.jayharris.ninemensmorris.minimax;
+
+import info.jayharris.ninemensmorris.Board;
+import info.jayharris.ninemensmorris.Coordinate;
+import info.jayharris.ninemensmorris.Piece;
+import info.jayharris.ninemensmorris.Symmetry;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A heuristic function that scores a position by looking up patterns in tables.
+ *
+ * Each of the 16 mills is in one of 27 patterns, since each of its three points
+ * is empty, mine or theirs. The horizontal mills are three consecutive bits of
+ * the occupancy masks, so their patterns index a table directly; turning the
+ * board a quarter turn makes the vertical mills horizontal. Each occupied point
+ * has a neighborhood pattern: how many of its neighbors are empty and how many
+ * hold the same player's pieces. The score of every pattern is worked out from
+ * the {@link Term} weights up front, so scoring a position is one table lookup
+ * per mill and per piece.
+ *
+ * Every pattern is scored for both players, and the opponent's score is
+ * subtracted, so a mill with one of each player's pieces and an empty point
+ * always scores zero.
+ *
+ * The weights can be read from a properties file, with each term's name in
+ * lower case as its key, e.g. {@code open_two = 3.5}. Terms the file leaves out
+ * keep their default weights.
+ */
+public class PatternHeuristicFunction extends AbstractHeuristicFunction {
+
+    public enum Term {
+        /** each piece on the board */
+        PIECE(1),
+        /** a mill with one of the player's pieces and two empty points */
+        SINGLE(0.1),
+        /** a mill with two of the player's pieces and an empty point */
+        OPEN_TWO(0.5),
+        /** a mill with two of the player's pieces and one of the opponent's */
+        BLOCKED_TWO(-0.1),
+        /** a mill with three of the player's pieces */
+        COMPLETE_MILL(0.75),
+        /** each empty neighbor of one of the player's pieces */
+        MOBILITY(0.1),
+        /** a piece with no empty neighbors */
+        BLOCKED_PIECE(-0.25),
+        /** each neighbor of one of the player's pieces that holds another of their pieces */
+        CONNECTED(0.05);
+
+        private final double defaultWeight;
+
+        Term(double defaultWeight) {
+            this.defaultWeight = defaultWeight;
+        }
+
+        public double getDefaultWeight() {
+            return defaultWeight;
+        }
+    }
+
+    /**
+     * a neighborhood is indexed by {@code NEIGHBORHOODS * empty + friendly}
+     */
+    private static final int NEIGHBORHOODS = 5;
+
+    /**
+     * the symmetry that turns the board a quarter turn, which takes the vertical
+     * mills to the horizontal ones
+     */
+    private static final int QUARTER_TURN = 1;
+
+    /**
+     * the score of each mill pattern, indexed by {@code mine << 3 | theirs} where
+     * {@code mine} and {@code theirs} are the three bits of the mill in each
+     * player's mask; patterns with a point in both masks are never looked up
+     */
+    private final double[] millScores = new double[1 << 6];
+
+    /**
+     * the score of each neighborhood of one of the player's pieces
+     */
+    private final double[] neighborhoodScores = new double[NEIGHBORHOODS * NEIGHBORHOODS];
+
+    public PatternHeuristicFunction(Piece myPiece) {
+        this(myPiece, new EnumMap<>(Term.class));
+    }
+
+    /**
+     * Constructs a pattern heuristic function.
+     *
+     * @param myPiece the player to evaluate states for
+     * @param weights the weight of each term; terms that aren't in the map get
+     *                their default weights
+     */
+    public PatternHeuristicFunction(Piece myPiece, Map<Term, Double> weights) {
+        super(myPiece);
+
+        EnumMap<Term, Double> w = new EnumMap<>(Term.class);
+        for (Term term : Term.values()) {
+            w.put(term, weights.getOrDefault(term, term.getDefaultWeight()));
+        }
+
+        for (int pattern = 0; pattern < millScores.length; ++pattern) {
+            int mine = Integer.bitCount(pattern >>> 3), theirs = Integer.bitCount(pattern & 7);
+            millScores[pattern] = millScore(w, mine, theirs) - millScore(w, theirs, mine);
+        }
+
+        for (int empty = 0; empty < NEIGHBORHOODS; ++empty) {
+            for (int friendly = 0; empty + friendly < NEIGHBORHOODS; ++friendly) {
+                neighborhoodScores[NEIGHBORHOODS * empty + friendly] = w.get(Term.PIECE)
+                        + w.get(Term.MOBILITY) * empty
+                        + (empty == 0 ? w.get(Term.BLOCKED_PIECE) : 0)
+                        + w.get(Term.CONNECTED) * friendly;
+            }
+        }
+    }
+
+    private static double millScore(Map<Term, Double> weights, int mine, int theirs) {
+        if (mine == 3) {
+            return weights.get(Term.COMPLETE_MILL);
+        }
+        if (mine == 2) {
+            return weights.get(theirs == 0 ? Term.OPEN_TWO : Term.BLOCKED_TWO);
+        }
+        if (mine == 1 && theirs == 0) {
+            return weights.get(Term.SINGLE);
+        }
+        return 0;
+    }
+
+    @Override
+    public double applyAsDouble(MinimaxState state) {
+        Board board = state.getBoard();
+        return evaluate(board.getOccupancy(piece), board.getOccupancy(piece.opposite()));
+    }
+
+    /**
+     * Scores a position.
+     *
+     * @param mine the points occupied by this function's player
+     * @param theirs the points occupied by the other player
+     * @return the score
+     */
+    public double evaluate(int mine, int theirs) {
+        double score = mills(mine, theirs)
+                + mills(Symmetry.apply(QUARTER_TURN, mine), Symmetry.apply(QUARTER_TURN, theirs));
+
+        int empty = ~(mine | theirs) & Board.ALL_POINTS;
+        return score + neighborhoods(mine, empty) - neighborhoods(theirs, empty);
+    }
+
+    /**
+     * the score of the horizontal mills, each of which is three consecutive bits
+     */
+    private double mills(int mine, int theirs) {
+        double score = 0;
+        for (int shift = 0; shift < Coordinate.NUM_POINTS; shift += 3) {
+            score += millScores[(mine >>> shift & 7) << 3 | theirs >>> shift & 7];
+        }
+        return score;
+    }
+
+    private double neighborhoods(int pieces, int empty) {
+        double score = 0;
+        for (int m = pieces; m != 0; m &= m - 1) {
+            int neighbors = Coordinate.NEIGHBOR_MASKS[Integer.numberOfTrailingZeros(m)];
+            score += neighborhoodScores[NEIGHBORHOODS * Integer.bitCount(neighbors & empty)
+                    + Integer.bitCount(neighbors & pieces)];
+        }
+        return score;
+    }
+
+    /**
+     * Reads weights from a properties file.
+     *
+     * @param path the file
+     * @return the weight of each term in the file
+     * @throws IOException if the file can't be read, or has a key that isn't a
+     *         term or a value that isn't a number
+     */
+    public static Map<Term, Double> readWeights(Path path) throws IOException {
+        Map<String, Term> names = new LinkedHashMap<>();
+        for (Term term : Term.values()) {
+            names.put(term.name().toLowerCase(Locale.ROOT), term);
+        }
+        return WeightsFile.read(path, names, new EnumMap<>(Term.class));
+    }
+
+    /**
+     * Creates a pattern heuristic function with weights from a properties file.
+     *
+     * @param myPiece the player to evaluate states for
+     * @param path the file
+     * @return the heuristic function
+     * @throws IOException if the file can't be read
+     * @see #readWeights(Path)
+     */
+    public static PatternHeuristicFunction create(Piece myPiece, Path path) throws IOException {
+        return new PatternHeuristicFunction(myPiece, readWeights(path));
+    }
+}
@@ -0,0 +1,254 @@
+package info.jayharris.ninemensmorris.minimax;
+
+import info.jayharris.ninemensmorris.Board;
+import info.jayharris.ninemensmorris.Piece;
+import info.jayharris.ninemensmorris.StalemateChecker;
+import info.jayharris.ninemensmorris.player.BasePlayer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Counts the leaf nodes of the game tree to a fixed depth ("perft").
+ *
+ * Perft is a correctness oracle for move generation, since the counts for a
+ * position never change, and a throughput benchmark, since it does nothing but
+ * generate, make and unmake moves.
+ *
+ * A stalemated state is a terminal node, so nothing below it is counted.
+ */
+public class Perft {
+
+    private final SearchState state;
+    private final int[][] buffers;
+    private final Counts counts = new Counts();
+
+    private Perft(SearchState state, int depth) {
+        this.state = state;
+        this.buffers = new int[Math.max(depth, 1)][MoveGenerator.MAX_MOVES];
+    }
+
+    private void perft(int depth, int ply) {
+        if (depth == 0) {
+            ++counts.nodes;
+            return;
+        }
+        if (state.isStalemate()) {
+            return;
+        }
+
+        int[] moves = buffers[ply];
+        int n = state.generate(moves, 0);
+
+        if (depth == 1) {
+            boolean canFly = state.getPlayerPieces() == 0 && state.getBoard().count(state.getToMove()) == 3;
+            for (int i = 0; i < n; ++i) {
+                counts.count(moves[i], canFly);
+            }
+            return;
+        }
+
+        for (int i = 0; i < n; ++i) {
+            state.make(moves[i]);
+            perft(depth - 1, ply + 1);
+            state.unmake(moves[i]);
+        }
+    }
+
+    /**
+     * Counts the leaf nodes {@code depth} plies below {@code state}.
+     *
+     * @param state the root state
+     * @param depth the depth
+     * @return the counts
+     */
+    public static Counts perft(MinimaxState state, int depth) {
+        return perft(SearchState.create(state), depth);
+    }
+
+    static Counts perft(SearchState state, int depth) {
+        Perft perft = new Perft(state, depth);
+        perft.perft(depth, 0);
+        return perft.counts;
+    }
+
+    /**
+     * Counts the leaf nodes {@code depth} plies below {@code state}, separately for
+     * each legal action from {@code state}.
+     *
+     * @param state the root state
+     * @param depth the depth, at least 1
+     * @return the counts for each action, in the order the actions were generated
+     */
+    public static Map<MinimaxAction, Counts> divide(MinimaxState state, int depth) {
+        SearchState searchState = SearchState.create(state);
+        Map<MinimaxAction, Counts> divide = new LinkedHashMap<>();
+
+        for (int move : rootMoves(searchState)) {
+            searchState.make(move);
+            divide.put(MinimaxAction.fromPackedMove(move), perft(searchState, depth - 1));
+            searchState.unmake(move);
+        }
+        return divide;
+    }
+
+    /**
+     * Counts the leaf nodes {@code depth} plies below {@code state}, searching the
+     * subtree below each legal action from {@code state} as a separate task.
+     *
+     * @param state the root state
+     * @param depth the depth, at least 1
+     * @param pool the pool to run the tasks in
+     * @return the counts
+     */
+    public static Counts parallelPerft(MinimaxState state, int depth, ForkJoinPool pool) {
+        return pool.invoke(new PerftTask(SearchState.create(state), depth));
+    }
+
+    private static int[] rootMoves(SearchState state) {
+        if (state.isStalemate()) {
+            return new int[0];
+        }
+
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int n = state.generate(moves, 0);
+
+        int[] rootMoves = new int[n];
+        System.arraycopy(moves, 0, rootMoves, 0, n);
+        return rootMoves;
+    }
+
+    private static class PerftTask extends RecursiveTask<Counts> {
+
+        private final SearchState state;
+        private final int depth;
+
+        PerftTask(SearchState state, int depth) {
+            this.state = state;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Counts compute() {
+            if (depth <= 2) {
+                return perft(state, depth);
+            }
+
+            List<PerftTask> subtasks = new ArrayList<>();
+            for (int move : rootMoves(state)) {
+                SearchState child = SearchState.copy(state);
+                child.make(move);
+                subtasks.add(new PerftTask(child, depth - 1));
+            }
+
+            Counts counts = new Counts();
+            invokeAll(subtasks).forEach(task -> counts.add(task.join()));
+            return counts;
+        }
+    }
+
+    /**
+     * Leaf node counts, broken down by the kind of move that reached the leaf.
+     * Captures are counted in addition to the placement, move or flight that
+     * completed the mill.
+     */
+    public static class Counts {
+
+        private long nodes, placements, moves, flights, captures;
+
+        private void count(int move, boolean canFly) {
+            ++nodes;
+
+            if (PackedMove.isPlacePiece(move)) {
+                ++placements;
+            }
+            else if (canFly) {
+                ++flights;
+            }
+            else {
+                ++moves;
+            }
+
+            if (PackedMove.isCapturePiece(move)) {
+                ++captures;
+            }
+        }
+
+        private void add(Counts other) {
+            nodes += other.nodes;
+            placements += other.placements;
+            moves += other.moves;
+            flights += other.flights;
+            captures += other.captures;
+        }
+
+        public long getNodes() {
+            return nodes;
+        }
+
+        public long getPlacements() {
+            return placements;
+        }
+
+        public long getMoves() {
+            return moves;
+        }
+
+        public long getFlights() {
+            return flights;
+        }
+
+        public long getCaptures() {
+            return captures;
+        }
+
+        @Override
+        public String toString() {
+            return new StringJoiner(", ", Counts.class.getSimpleName() + "[", "]")
+                    .add("nodes=" + nodes)
+                    .add("placements=" + placements)
+                    .add("moves=" + moves)
+                    .add("flights=" + flights)
+                    .add("captures=" + captures)
+                    .toString();
+        }
+    }
+
+    /**
+     * Runs perft from the start of the game and reports nodes per second.
+     *
+     * @param args the depth (default 5), and optionally "divide" or "parallel"
+     */
+    public static void main(String... args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        String mode = args.length > 1 ? args[1] : "serial";
+
+        MinimaxState start = MinimaxState.create(new Board(), BasePlayer.FIRST_PLAYER, 9, StalemateChecker.create());
+
+        long begin = System.nanoTime();
+        Counts counts;
+        switch (mode) {
+            case "divide":
+                counts = new Counts();
+                for (Map.Entry<MinimaxAction, Counts> entry : divide(start, depth).entrySet()) {
+                    System.out.printf("%-10s %d%n", entry.getKey().pretty(), entry.getValue().getNodes());
+                    counts.add(entry.getValue());
+                }
+                break;
+            case "parallel":
+                counts = parallelPerft(start, depth, ForkJoinPool.commonPool());
+                break;
+            default:
+                counts = perft(start, depth);
+        }
+        double seconds = (System.nanoTime() - begin) / 1e9;
+
+        System.out.println(counts);
+        System.out.printf("%.3f s, %.0f nodes/s%n", seconds, counts.getNodes() / seconds);
+    }
+}
@@ -0,0 +1,440 @@
+package info.jayharris.ninemensmorris.minimax;
+
+import info.jayharris.minimax.search.Search;
+import info.jayharris.ninemensmorris.Piece;
+
+import java.util.function.ToDoubleFunction;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * An iterative-deepening principal variation search ("NegaScout").
+ *
+ * At each state, the first action is searched with the full alpha-beta window,
+ * and the rest with a null window, which only tells whether the action is better
+ * than the best so far. An action that turns out to be better is searched again
+ * with the full window. With good move ordering, the first action is usually the
+ * best, so most of the tree is searched with null windows, which prune the most.
+ *
+ * Moves are tried in the order a {@link MoveOrderer} gives; by default, a
+ * {@link KillerHistoryMoveOrderer}.
+ *
+ * At the depth limit, a quiescence search keeps going with only the moves that
+ * close a mill, so that a position isn't scored just before a piece is lost.
+ *
+ * Each iteration after the first starts with a narrow "aspiration" window around
+ * the previous iteration's score, and widens it if the score falls outside.
+ *
+ * Narrow windows need finite scores, so a won game is worth {@link #WIN} less the
+ * number of plies it takes to win, rather than infinity, and the heuristic
+ * function's values are clamped to {@link #MAX_HEURISTIC}. Scores are stored in
+ * the transposition table as {@code float}s, so heuristic values are rounded to
+ * {@code float}s as well.
+ */
+public class PrincipalVariationSearch implements Search<MinimaxState, MinimaxAction> {
+
+    /**
+     * the score of a win on the spot; a win {@code n} plies away scores {@code WIN - n}
+     */
+    public static final double WIN = 1_000_000;
+
+    /**
+     * the largest magnitude of a heuristic value
+     */
+    public static final double MAX_HEURISTIC = WIN / 2;
+
+    /**
+     * by default, search at most this many plies of captures past the depth limit
+     */
+    public static final int DEFAULT_QUIESCENCE_DEPTH = 4;
+
+    public static final int MAX_QUIESCENCE_DEPTH = 16;
+
+    /**
+     * the half-width of the first aspiration window
+     */
+    static final double ASPIRATION_WINDOW = 0.25;
+
+    private final Piece myPiece;
+    private final TranspositionTable table;
+    private final SearchBudget budget;
+    private final int maxDepth;
+    private final MoveOrderer orderer;
+    private final int quiescenceDepth;
+
+    private final SearchContext context;
+
+    private SearchState state;
+    private long startTime;
+    private boolean aborted;
+
+    /**
+     * the score of the last call to {@link #root}, relative to the player to move
+     */
+    private double rootValue;
+
+    private int completedDepth;
+    private double score;
+    private long nodes, researches;
+
+    public PrincipalVariationSearch(ToDoubleFunction<MinimaxState> heuristic, Piece myPiece,
+                                    TranspositionTable table, SearchBudget budget) {
+        this(heuristic, myPiece, table, budget, TranspositionTable.MAX_DEPTH);
+    }
+
+    public PrincipalVariationSearch(ToDoubleFunction<MinimaxState> heuristic, Piece myPiece,
+                                    TranspositionTable table, SearchBudget budget, int maxDepth) {
+        this(heuristic, myPiece, table, budget, maxDepth, new KillerHistoryMoveOrderer(), DEFAULT_QUIESCENCE_DEPTH);
+    }
+
+    public PrincipalVariationSearch(ToDoubleFunction<MinimaxState> heuristic, Piece myPiece,
+                                    TranspositionTable table, SearchBudget budget, int maxDepth,
+                                    MoveOrderer orderer, int quiescenceDepth) {
+        checkArgument(maxDepth > 0 && maxDepth <= TranspositionTable.MAX_DEPTH,
+                "Depth must be between 1 and %s.", TranspositionTable.MAX_DEPTH);
+        checkArgument(quiescenceDepth >= 0 && quiescenceDepth <= MAX_QUIESCENCE_DEPTH,
+                "Quiescence depth must be between 0 and %s.", MAX_QUIESCENCE_DEPTH);
+
+        this.myPiece = myPiece;
+        this.table = table;
+        this.budget = budget;
+        this.maxDepth = maxDepth;
+        this.orderer = orderer;
+        this.quiescenceDepth = quiescenceDepth;
+        this.context = new SearchContext(heuristic, myPiece, TranspositionTable.MAX_DEPTH + MAX_QUIESCENCE_DEPTH + 1);
+    }
+
+    @Override
+    public MinimaxAction perform(MinimaxState initialState) {
+        state = SearchState.create(initialState);
+        startTime = System.nanoTime();
+        aborted = false;
+        nodes = researches = 0;
+        completedDepth = 0;
+        orderer.clear();
+
+        int best = PackedMove.NO_MOVE;
+        double previous = 0.0;
+
+        for (int depth = 1; depth <= maxDepth; ++depth) {
+            double delta = ASPIRATION_WINDOW;
+            double alpha = Double.NEGATIVE_INFINITY, beta = Double.POSITIVE_INFINITY;
+            if (depth > 1 && !isDecided(previous)) {
+                alpha = (float) (previous - delta);
+                beta = (float) (previous + delta);
+            }
+
+            int move;
+            double value;
+            while (true) {
+                move = root(depth, alpha, beta, best);
+                value = rootValue;
+                if (aborted) {
+                    break;
+                }
+
+                // Widen whichever side of the window the score fell outside of.
+                delta *= 4;
+                if (value <= alpha) {
+                    alpha = (float) (value - delta);
+                }
+                else if (value >= beta) {
+                    beta = (float) (value + delta);
+                }
+                else {
+                    break;
+                }
+                if (delta > MAX_HEURISTIC || isDecided(value)) {
+                    alpha = Double.NEGATIVE_INFINITY;
+                    beta = Double.POSITIVE_INFINITY;
+                }
+                ++researches;
+            }
+
+            if (aborted) {
+                // We didn't finish even one ply, so take the best move we did find.
+                if (best == PackedMove.NO_MOVE) {
+                    best = move;
+                }
+                break;
+            }
+
+            best = move;
+            previous = value;
+            completedDepth = depth;
+            score = state.getToMove() == myPiece ? value : -value;
+
+            // There's nothing to search, or a deeper search won't change the outcome.
+            if (best == PackedMove.NO_MOVE || isDecided(value)) {
+                break;
+            }
+        }
+
+        return best == PackedMove.NO_MOVE ? null : MinimaxAction.fromPackedMove(best);
+    }
+
+    private int root(int depth, double alpha, double beta, int firstMove) {
+        ++nodes;
+        int[] moves = context.buffer(0);
+        int n = state.isStalemate() ? 0 : state.generate(moves, 0);
+
+        long key = state.getKey();
+        orderer.order(state, moves, n, 0, TranspositionTable.move(table.probe(key)));
+        MoveOrderer.promote(moves, n, firstMove);
+
+        double alphaOriginal = alpha, best = Double.NEGATIVE_INFINITY;
+        int bestMove = PackedMove.NO_MOVE;
+
+        for (int i = 0; i < n; ++i) {
+            state.make(moves[i]);
+            double value = child(i, depth - 1, alpha, beta, 1);
+            state.unmake(moves[i]);
+
+            if (aborted) {
+                break;
+            }
+            if (bestMove == PackedMove.NO_MOVE || value > best) {
+                best = value;
+                bestMove = moves[i];
+            }
+            alpha = Math.max(alpha, best);
+            if (alpha >= beta) {
+                orderer.cutoff(state, moves[i], i, 0, depth);
+                break;
+            }
+        }
+
+        if (bestMove != PackedMove.NO_MOVE && !aborted) {
+            table.store(key, toTable(best, 0), depth, bound(best, alphaOriginal, beta), bestMove);
+        }
+
+        if (n == 0) {
+            best = state.isStalemate() ? 0.0 : -WIN;
+        }
+        rootValue = best;
+        return bestMove;
+    }
+
+    private double search(int depth, double alpha, double beta, int ply) {
+        if ((++nodes & 0x3ff) == 0 && budget.isExhausted(startTime, nodes)) {
+            aborted = true;
+        }
+        if (aborted) {
+            return 0.0;
+        }
+
+        if (state.isStalemate()) {
+            return 0.0;
+        }
+        if (depth <= 0) {
+            return quiesce(quiescenceDepth, alpha, beta, ply);
+        }
+
+        int[] moves = context.buffer(ply);
+        int n = state.generate(moves, 0);
+        if (n == 0) {
+            return -(WIN - ply);
+        }
+
+        long key = state.getKey();
+        long entry = table.probe(key);
+        if (entry != 0 && TranspositionTable.depth(entry) >= depth) {
+            double stored = fromTable(TranspositionTable.score(entry), ply);
+            switch (TranspositionTable.bound(entry)) {
+                case TranspositionTable.EXACT:
+                    return stored;
+                case TranspositionTable.LOWER:
+                    alpha = Math.max(alpha, stored);
+                    break;
+                case TranspositionTable.UPPER:
+                    beta = Math.min(beta, stored);
+                    break;
+            }
+            if (alpha >= beta) {
+                return stored;
+            }
+        }
+        orderer.order(state, moves, n, ply, TranspositionTable.move(entry));
+
+        double alphaOriginal = alpha, best = Double.NEGATIVE_INFINITY;
+        int bestMove = PackedMove.NO_MOVE;
+
+        for (int i = 0; i < n; ++i) {
+            state.make(moves[i]);
+            double value = child(i, depth - 1, alpha, beta, ply + 1);
+            state.unmake(moves[i]);
+
+            if (aborted) {
+                return 0.0;
+            }
+            if (bestMove == PackedMove.NO_MOVE || value > best) {
+                best = value;
+                bestMove = moves[i];
+            }
+            alpha = Math.max(alpha, best);
+            if (alpha >= beta) {
+                orderer.cutoff(state, moves[i], i, ply, depth);
+                break;
+            }
+        }
+
+        table.store(key, toTable(best, ply), depth, bound(best, alphaOriginal, beta), bestMove);
+        return best;
+    }
+
+    /**
+     * Searches only the moves that close a mill, until there aren't any or
+     * {@code depth} runs out.
+     *
+     * The player to move can always choose not to close a mill, so the heuristic
+     * value of the state is a lower bound on its score ("standing pat").
+     */
+    private double quiesce(int depth, double alpha, double beta, int ply) {
+        if (!MoveGenerator.hasMoves(state.getBoard(), state.getToMove(), state.getPlayerPieces())) {
+            return -(WIN - ply);
+        }
+
+        double best = evaluate();
+        if (depth == 0 || best >= beta
+                || !MoveGenerator.canCloseMill(state.getBoard(), state.getToMove(), state.getPlayerPieces())) {
+            return best;
+        }
+        alpha = Math.max(alpha, best);
+
+        int[] moves = context.buffer(ply);
+        int n = state.generate(moves, 0);
+
+        // A capture can't repeat an earlier state, so there's no stalemate to check for.
+        for (int i = 0; i < n; ++i) {
+            if (!PackedMove.isCapturePiece(moves[i])) {
+                continue;
+            }
+
+            ++nodes;
+            state.make(moves[i]);
+            double value = -quiesce(depth - 1, -beta, -alpha, ply + 1);
+            state.unmake(moves[i]);
+
+            best = Math.max(best, value);
+            alpha = Math.max(alpha, best);
+            if (alpha >= beta) {
+                break;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Searches the state after the {@code i}th move, with the full window for the
+     * first move and a null window for the rest.
+     *
+     * @return the score of the move for the player who made it
+     */
+    private double child(int i, int depth, double alpha, double beta, int ply) {
+        if (i == 0) {
+            return -search(depth, -beta, -alpha, ply);
+        }
+
+        // Every score and window bound is a float, so there's no score strictly
+        // between alpha and the next float up: the null window only tells if the
+        // move beats alpha.
+        double value = -search(depth, -Math.nextUp((float) alpha), -alpha, ply);
+        if (value > alpha && value < beta && !aborted) {
+            ++researches;
+            value = -search(depth, -beta, -alpha, ply);
+        }
+        return value;
+    }
+
+    private double evaluate() {
+        double value = context.evaluate(state);
+        if (Double.isNaN(value)) {
+            return 0.0;
+        }
+        return (float) Math.max(-MAX_HEURISTIC, Math.min(MAX_HEURISTIC, value));
+    }
+
+    private static int bound(double best, double alpha, double beta) {
+        return best <= alpha ? TranspositionTable.UPPER :
+                best >= beta ? TranspositionTable.LOWER : TranspositionTable.EXACT;
+    }
+
+    /**
+     * Converts a win or loss score, which counts plies from the root, to one that
+     * counts plies from the state being stored, so that it's right wherever the
+     * state comes up again.
+     */
+    private static double toTable(double score, int ply) {
+        if (score > MAX_HEURISTIC) {
+            return score + ply;
+        }
+        if (score < -MAX_HEURISTIC) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    private static double fromTable(double score, int ply) {
+        if (score > MAX_HEURISTIC) {
+            return score - ply;
+        }
+        if (score < -MAX_HEURISTIC) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    /**
+     * Determines whether {@code score} means that one player can force a win.
+     *
+     * @param score a score
+     * @return true iff the score is a win or a loss
+     */
+    public static boolean isDecided(double score) {
+        return Math.abs(score) > MAX_HEURISTIC;
+    }
+
+    /**
+     * Gets the depth of the deepest search that finished during the last call to
+     * {@link #perform}.
+     *
+     * @return the depth
+     */
+    public int getCompletedDepth() {
+        return completedDepth;
+    }
+
+    /**
+     * Gets the score of the deepest search that finished, relative to
+     * {@code myPiece}. A win or a loss is a finite score; see {@link #isDecided}.
+     *
+     * @return the score
+     */
+    public double getScore() {
+        return score;
+    }
+
+    /**
+     * Gets the number of states visited during the last call to {@link #perform},
+     * over all iterations.
+     *
+     * @return the number of nodes
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Gets the number of times, during the last call to {@link #perform}, that a
+     * null-window or aspiration search failed and had to be searched again.
+     *
+     * @return the number of re-searches
+     */
+    public long getResearches() {
+        return researches;
+    }
+
+    public MoveOrderer getOrderer() {
+        return orderer;
+    }
+}
@@ -0,0 +1,176 @@
+package info.jayharris.ninemensmorris.minimax;
+
+import info.jayharris.ninemensmorris.Board;
+import info.jayharris.ninemensmorris.Piece;
+import info.jayharris.ninemensmorris.PositionIndex;
+
+import java.util.SplittableRandom;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Plays random games on bitboards, for Monte Carlo playouts and for players that
+ * just need a legal move.
+ *
+ * Every move is picked uniformly from the moves {@link MoveGenerator} writes, so
+ * a move that closes a mill counts once for each piece it could capture. A game
+ * ends when the player to move has no moves (a loss), when a board repeats since
+ * the last placement or capture (a draw, as in {@link SearchState}), or after
+ * {@code maxPlies} plies (also a draw). A playout only knows the boards it
+ * reaches itself, not the ones before it started.
+ *
+ * Once constructed, a playout doesn't allocate. It isn't thread-safe: use one per
+ * thread.
+ */
+public final class RandomPlayout {
+
+    public static final int WIN = 1, DRAW = 0, LOSS = -1;
+
+    public static final int DEFAULT_MAX_PLIES = 200;
+
+    private final SplittableRandom random;
+    private final int maxPlies;
+
+    private final int[] moves = new int[MoveGenerator.MAX_MOVES];
+
+    /**
+     * the boards reached by moving a piece since the last irreversible move, and a
+     * 64-bit Bloom filter of them to skip most of the scans
+     */
+    private final long[] history;
+    private int historySize;
+    private long seen;
+
+    private int plies;
+
+    public RandomPlayout(SplittableRandom random) {
+        this(random, DEFAULT_MAX_PLIES);
+    }
+
+    public RandomPlayout(SplittableRandom random, int maxPlies) {
+        checkArgument(maxPlies > 0, "A playout has to be allowed at least one ply.");
+
+        this.random = random;
+        this.maxPlies = maxPlies;
+        this.history = new long[maxPlies];
+    }
+
+    /**
+     * Plays a random game.
+     *
+     * @param mine the points occupied by the player to move
+     * @param theirs the points occupied by the other player
+     * @param toMove the player to move
+     * @param playerPieces the number of pieces the player to move has left to place
+     * @return {@link #WIN}, {@link #DRAW} or {@link #LOSS}, for the player to move
+     */
+    public int play(int mine, int theirs, Piece toMove, int playerPieces) {
+        historySize = 0;
+        seen = 0;
+
+        Piece player = toMove;
+
+        for (plies = 0; plies < maxPlies; ++plies) {
+            int n = MoveGenerator.generate(mine, theirs, playerPieces, moves, 0);
+            if (n == 0) {
+                // the player to move at the start is the one to move at even plies
+                return (plies & 1) == 0 ? LOSS : WIN;
+            }
+
+            int move = moves[random.nextInt(n)];
+            if (PackedMove.isMovePiece(move)) {
+                mine &= ~(1 << PackedMove.from(move));
+            }
+            mine |= 1 << PackedMove.to(move);
+            if (PackedMove.isCapturePiece(move)) {
+                theirs &= ~(1 << PackedMove.capture(move));
+            }
+
+            if (PackedMove.isMovePiece(move) && !PackedMove.isCapturePiece(move)) {
+                // the same board whoever is to move, so key it by color
+                if (repeats(player == toMove ? PositionIndex.pack(mine, theirs) : PositionIndex.pack(theirs, mine))) {
+                    ++plies;
+                    return DRAW;
+                }
+            }
+            else {
+                historySize = 0;
+                seen = 0;
+            }
+
+            int swap = mine;
+            mine = theirs;
+            theirs = swap;
+
+            playerPieces = MinimaxState.nextPlayerPieces(playerPieces, player);
+            player = player.opposite();
+        }
+        return DRAW;
+    }
+
+    /**
+     * Plays a random game from a board.
+     *
+     * @param board the board
+     * @param toMove the player to move
+     * @param playerPieces the number of pieces the player to move has left to place
+     * @return {@link #WIN}, {@link #DRAW} or {@link #LOSS}, for the player to move
+     */
+    public int play(Board board, Piece toMove, int playerPieces) {
+        return play(board.getOccupancy(toMove), board.getOccupancy(toMove.opposite()), toMove, playerPieces);
+    }
+
+    /**
+     * Records a board, and determines whether it has come up before.
+     */
+    private boolean repeats(long key) {
+        long bit = 1L << (key ^ key >>> 29);
+        if ((seen & bit) != 0) {
+            for (int i = 0; i < historySize; ++i) {
+                if (history[i] == key) {
+                    return true;
+                }
+            }
+        }
+        seen |= bit;
+        history[historySize++] = key;
+        return false;
+    }
+
+    /**
+     * Picks a random legal move.
+     *
+     * @param mine the points occupied by the player to move
+     * @param theirs the points occupied by the other player
+     * @param playerPieces the number of pieces the player to move has left to place
+     * @return a {@link PackedMove}, or {@link PackedMove#NO_MOVE} if there aren't any
+     */
+    public int randomMove(int mine, int theirs, int playerPieces) {
+        int n = MoveGenerator.generate(mine, theirs, playerPieces, moves, 0);
+        return n == 0 ? PackedMove.NO_MOVE : moves[random.nextInt(n)];
+    }
+
+    /**
+     * Picks a random point from a mask.
+     *
+     * @param mask the mask, which mustn't be empty
+     * @return the index of the point
+     */
+    public int randomPoint(int mask) {
+        checkArgument(mask != 0, "There are no points to pick from.");
+
+        for (int i = random.nextInt(Integer.bitCount(mask)); i > 0; --i) {
+            mask &= mask - 1;
+        }
+        return Integer.numberOfTrailingZeros(mask);
+    }
+
+    /**
+     * Gets the number of plies in the last game played.
+     *
+     * @return the number of plies
+     */
+    public int getPlies() {
+        return plies;
+    }
+}
@@ -8,12 +8,15 @@ import info.jayharris.ninemensmorris.minimax.feature.MobilityFeature;
  */
 public class SampleHeuristicFunction extends AbstractHeuristicFunction {
 
+    private final MobilityFeature mobility;
+
     public SampleHeuristicFunction(Piece myPiece) {
         super(myPiece);
+        this.mobility = new MobilityFeature(myPiece);
     }
 
     @Override
     public double applyAsDouble(MinimaxState state) {
-        return new MobilityFeature(piece).apply(state);
+        return mobility.apply(state);
     }
 }
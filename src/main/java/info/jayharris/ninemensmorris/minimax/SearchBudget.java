@@ -0,0 +1,64 @@
+package info.jayharris.ninemensmorris.minimax;
+
+import java.time.Duration;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * How much a search may do before it has to return a move: a wall-clock time, a
+ * number of nodes, or both, whichever runs out first.
+ */
+public final class SearchBudget {
+
+    public static final SearchBudget UNLIMITED = new SearchBudget(Long.MAX_VALUE, Long.MAX_VALUE);
+
+    private final long nanos;
+    private final long nodes;
+
+    private SearchBudget(long nanos, long nodes) {
+        this.nanos = nanos;
+        this.nodes = nodes;
+    }
+
+    /**
+     * Determines whether a search that started at {@code start} and has visited
+     * {@code visited} nodes has used up this budget.
+     *
+     * @param start the start time, from {@link System#nanoTime()}
+     * @param visited the number of nodes visited
+     * @return true iff the search should stop
+     */
+    boolean isExhausted(long start, long visited) {
+        return visited >= nodes || nanos != Long.MAX_VALUE && System.nanoTime() - start >= nanos;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public static SearchBudget ofTime(Duration time) {
+        return of(time, Long.MAX_VALUE);
+    }
+
+    public static SearchBudget ofNodes(long nodes) {
+        return of(null, nodes);
+    }
+
+    /**
+     * Creates a budget of time and nodes.
+     *
+     * @param time the time, or {@code null} for no limit on time
+     * @param nodes the number of nodes
+     * @return a new budget
+     */
+    public static SearchBudget of(Duration time, long nodes) {
+        checkArgument(time == null || !time.isNegative() && !time.isZero(), "Time must be positive.");
+        checkArgument(nodes > 0, "Nodes must be positive.");
+
+        return new SearchBudget(time == null ? Long.MAX_VALUE : time.toNanos(), nodes);
+    }
+}
@@ -0,0 +1,69 @@
+package info.jayharris.ninemensmorris.minimax;
+
+import info.jayharris.ninemensmorris.Piece;
+import info.jayharris.ninemensmorris.StalemateChecker;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * What a depth-first search over a {@link SearchState} needs besides the state:
+ * the heuristic function, seen from the player to move, and a move buffer for
+ * each ply.
+ *
+ * A context isn't thread-safe, since the buffers are reused. Each thread that
+ * searches needs its own.
+ */
+final class SearchContext {
+
+    private final ToDoubleFunction<MinimaxState> heuristic;
+    private final Piece myPiece;
+
+    /**
+     * the heuristic function only sees non-terminal states, so it doesn't need the
+     * real history of the game
+     */
+    private final StalemateChecker noHistory = StalemateChecker.create();
+
+    /**
+     * one move buffer per ply, allocated as the search first reaches that ply
+     */
+    private final int[][] buffers;
+
+    /**
+     * Constructs a context.
+     *
+     * @param heuristic the heuristic function, relative to {@code myPiece}
+     * @param myPiece the player the search is for
+     * @param plies the number of plies the search can reach, counting the root
+     */
+    SearchContext(ToDoubleFunction<MinimaxState> heuristic, Piece myPiece, int plies) {
+        this.heuristic = heuristic;
+        this.myPiece = myPiece;
+        this.buffers = new int[plies][];
+    }
+
+    /**
+     * Evaluates a state with the heuristic function.
+     *
+     * @param state the state
+     * @return the value of the state relative to the player to move
+     */
+    double evaluate(SearchState state) {
+        double value = heuristic.applyAsDouble(MinimaxState.create(
+                state.getBoard(), state.getToMove(), state.getPlayerPieces(), noHistory));
+        return state.getToMove() == myPiece ? value : -value;
+    }
+
+    /**
+     * Gets the move buffer for a ply.
+     *
+     * @param ply the ply, where the root is 0
+     * @return a buffer of {@link MoveGenerator#MAX_MOVES} moves
+     */
+    int[] buffer(int ply) {
+        if (buffers[ply] == null) {
+            buffers[ply] = new int[MoveGenerator.MAX_MOVES];
+        }
+        return buffers[ply];
+    }
+}
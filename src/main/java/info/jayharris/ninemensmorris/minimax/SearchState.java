@@ -0,0 +1,275 @@
+package info.jayharris.ninemensmorris.minimax;
+
+import info.jayharris.ninemensmorris.Board;
+import info.jayharris.ninemensmorris.Piece;
+import info.jayharris.ninemensmorris.Zobrist;
+import info.jayharris.ninemensmorris.player.BasePlayer;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * A mutable game state for depth-first search.
+ *
+ * Unlike {@link MinimaxState}, which copies the board for every successor, a
+ * search state owns a single board. {@link #make(int)} performs a move in place
+ * and {@link #unmake(int)} takes it back, so a search can walk the whole tree
+ * without allocating.
+ */
+public class SearchState {
+
+    private final Board board;
+    private Piece toMove;
+    private int playerPieces;
+
+    /**
+     * the keys of the boards reached by moving a piece, oldest first
+     */
+    private long[] history;
+    private int historySize;
+
+    /**
+     * the index in {@code history} of the first board since the last irreversible
+     * move, i.e. a placement or a capture, and the indices it had before each
+     * irreversible move that hasn't been taken back. Boards before this one can't
+     * come up again, so they aren't checked for repetitions.
+     */
+    private int reachableFrom;
+    private int[] reachableFromStack;
+    private int irreversibleMoves;
+
+    /**
+     * the history size at which a board was first repeated, or
+     * {@code Integer.MAX_VALUE} if no board has been repeated
+     */
+    private int stalemateAt;
+
+    private SearchState(Board board, Piece toMove, int playerPieces, boolean isStalemate, long[] history) {
+        this.board = board;
+        this.toMove = toMove;
+        this.playerPieces = playerPieces;
+        this.history = Arrays.copyOf(history, Math.max(16, history.length * 2));
+        this.historySize = history.length;
+        this.stalemateAt = isStalemate ? 0 : Integer.MAX_VALUE;
+        this.reachableFromStack = new int[16];
+    }
+
+    private SearchState(SearchState original) {
+        this.board = Board.copy(original.board);
+        this.toMove = original.toMove;
+        this.playerPieces = original.playerPieces;
+        this.history = original.history.clone();
+        this.historySize = original.historySize;
+        this.stalemateAt = original.stalemateAt;
+        this.reachableFrom = original.reachableFrom;
+        this.reachableFromStack = original.reachableFromStack.clone();
+        this.irreversibleMoves = original.irreversibleMoves;
+    }
+
+    /**
+     * Performs {@code move} on this state.
+     *
+     * The move is assumed to be legal, e.g. one written by {@link MoveGenerator}.
+     *
+     * @param move a {@link PackedMove}
+     */
+    public void make(int move) {
+        if (PackedMove.isMovePiece(move)) {
+            board.setPiece(PackedMove.from(move), null);
+        }
+        board.setPiece(PackedMove.to(move), toMove);
+        if (PackedMove.isCapturePiece(move)) {
+            board.setPiece(PackedMove.capture(move), null);
+        }
+
+        if (isIrreversible(move)) {
+            if (irreversibleMoves == reachableFromStack.length) {
+                reachableFromStack = Arrays.copyOf(reachableFromStack, irreversibleMoves * 2);
+            }
+            reachableFromStack[irreversibleMoves++] = reachableFrom;
+            reachableFrom = historySize;
+        }
+        if (PackedMove.isMovePiece(move)) {
+            push(board.getKey());
+        }
+
+        playerPieces = MinimaxState.nextPlayerPieces(playerPieces, toMove);
+        toMove = toMove.opposite();
+    }
+
+    /**
+     * Takes back {@code move}, which must be the most recent move that hasn't been
+     * taken back yet.
+     *
+     * @param move a {@link PackedMove}
+     */
+    public void unmake(int move) {
+        toMove = toMove.opposite();
+        playerPieces = previousPlayerPieces(playerPieces, toMove, move);
+
+        if (PackedMove.isMovePiece(move)) {
+            pop();
+        }
+        if (isIrreversible(move)) {
+            reachableFrom = reachableFromStack[--irreversibleMoves];
+        }
+
+        if (PackedMove.isCapturePiece(move)) {
+            board.setPiece(PackedMove.capture(move), toMove.opposite());
+        }
+        board.setPiece(PackedMove.to(move), null);
+        if (PackedMove.isMovePiece(move)) {
+            board.setPiece(PackedMove.from(move), toMove);
+        }
+    }
+
+    /**
+     * Performs {@code action} on this state.
+     *
+     * @param action the action
+     * @return a record with which to take the action back
+     * @see #make(int)
+     */
+    public Undo make(MinimaxAction action) {
+        make(action.getPackedMove());
+        return new Undo(action);
+    }
+
+    /**
+     * Takes back the most recent action that hasn't been taken back yet.
+     *
+     * @param undo the record returned by {@link #make(MinimaxAction)}
+     */
+    public void unmake(Undo undo) {
+        unmake(undo.action.getPackedMove());
+    }
+
+    private void push(long key) {
+        if (stalemateAt == Integer.MAX_VALUE) {
+            for (int i = reachableFrom; i < historySize; ++i) {
+                if (history[i] == key) {
+                    stalemateAt = historySize + 1;
+                    break;
+                }
+            }
+        }
+
+        if (historySize == history.length) {
+            history = Arrays.copyOf(history, historySize * 2);
+        }
+        history[historySize++] = key;
+    }
+
+    private void pop() {
+        if (--historySize < stalemateAt && stalemateAt != 0) {
+            stalemateAt = Integer.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Writes the legal moves for this state into {@code buffer}.
+     *
+     * @param buffer the buffer
+     * @param offset the index in {@code buffer} of the first move
+     * @return the number of moves written
+     * @see MoveGenerator#generate
+     */
+    public int generate(int[] buffer, int offset) {
+        return MoveGenerator.generate(board, toMove, playerPieces, buffer, offset);
+    }
+
+    /**
+     * Get all of the legal actions for this state.
+     *
+     * @return a collection of actions
+     */
+    public Collection<MinimaxAction> actions() {
+        return MinimaxState.actions(board, toMove, playerPieces);
+    }
+
+    public boolean terminalTest() {
+        return isStalemate() || !MoveGenerator.hasMoves(board, toMove, playerPieces);
+    }
+
+    public Board getBoard() {
+        return board;
+    }
+
+    public Piece getToMove() {
+        return toMove;
+    }
+
+    public int getPlayerPieces() {
+        return playerPieces;
+    }
+
+    public boolean isStalemate() {
+        return stalemateAt <= historySize;
+    }
+
+    /**
+     * Gets the Zobrist key of this state.
+     *
+     * @return the key
+     * @see MinimaxState#getKey()
+     */
+    public long getKey() {
+        return board.getKey() ^ Zobrist.toMove(toMove) ^ Zobrist.piecesInHand(toMove, playerPieces);
+    }
+
+    private static boolean isIrreversible(int move) {
+        return PackedMove.isPlacePiece(move) || PackedMove.isCapturePiece(move);
+    }
+
+    /**
+     * Gets the number of pieces {@code currentPlayer} had left to place before
+     * making {@code move}. This inverts {@link MinimaxState#nextPlayerPieces}.
+     */
+    private static int previousPlayerPieces(int nextPlayerPieces, Piece currentPlayer, int move) {
+        if (PackedMove.isMovePiece(move)) {
+            return 0;
+        }
+        return nextPlayerPieces + (currentPlayer == BasePlayer.FIRST_PLAYER ? 0 : 1);
+    }
+
+    /**
+     * Creates a search state from a {@code MinimaxState}.
+     *
+     * The search state gets its own copy of the board, so {@code state} is not
+     * affected by anything done to it.
+     *
+     * @param state the state
+     * @return a new search state
+     */
+    public static SearchState create(MinimaxState state) {
+        return new SearchState(Board.copy(state.getBoard()), state.getToMove(), state.getPlayerPieces(),
+                state.isStalemate(), state.getStalemateChecker().getHistory());
+    }
+
+    /**
+     * Creates an independent copy of a search state, e.g. for another thread to
+     * search from.
+     *
+     * @param original the search state
+     * @return a new search state
+     */
+    public static SearchState copy(SearchState original) {
+        return new SearchState(original);
+    }
+
+    /**
+     * What {@link #unmake(Undo)} needs to restore the state from before an action.
+     */
+    public static final class Undo {
+
+        private final MinimaxAction action;
+
+        private Undo(MinimaxAction action) {
+            this.action = action;
+        }
+
+        public MinimaxAction getAction() {
+            return action;
+        }
+    }
+}
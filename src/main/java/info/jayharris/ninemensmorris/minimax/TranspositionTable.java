@@ -0,0 +1,194 @@
+package info.jayharris.ninemensmorris.minimax;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * A fixed-size hash table of search results, keyed by the Zobrist key of a state.
+ *
+ * The table is a power-of-two number of two-slot buckets, held in two parallel
+ * {@code long} arrays so that it doesn't allocate after it's created. The first
+ * slot in a bucket keeps the deepest result stored there; the second slot is
+ * always replaced. An entry is packed into a single {@code long}:
+ *
+ * <pre>
+ *   bits  0-14  the best move, as a {@link PackedMove}
+ *   bits 15-16  the bound type, one of {@link #EXACT}, {@link #LOWER} or {@link #UPPER}
+ *   bits 17-23  the search depth
+ *   bits 32-63  the score, as a {@code float}
+ * </pre>
+ *
+ * The bound type is never zero, so neither is an entry. {@link #probe(long)}
+ * returns zero on a miss.
+ *
+ * The table can be shared by several searching threads without locking. A slot
+ * holds {@code key ^ entry} rather than the key itself, so if two threads write a
+ * slot at once and the slot ends up with one thread's key and the other's entry,
+ * the key won't verify and a probe treats the slot as empty.
+ */
+public final class TranspositionTable {
+
+    /**
+     * the score is the exact value of the state
+     */
+    public static final int EXACT = 1;
+
+    /**
+     * the score is a lower bound on the value of the state, i.e. the search failed high
+     */
+    public static final int LOWER = 2;
+
+    /**
+     * the score is an upper bound on the value of the state, i.e. the search failed low
+     */
+    public static final int UPPER = 3;
+
+    public static final int MAX_DEPTH = 0x7f;
+
+    private static final int SLOTS_PER_BUCKET = 2;
+    private static final int BYTES_PER_SLOT = 2 * Long.BYTES;
+
+    private final long[] keys;
+    private final long[] entries;
+    private final int bucketMask;
+
+    private final LongAdder hits = new LongAdder(), misses = new LongAdder(), collisions = new LongAdder();
+
+    private TranspositionTable(int buckets) {
+        this.keys = new long[buckets * SLOTS_PER_BUCKET];
+        this.entries = new long[buckets * SLOTS_PER_BUCKET];
+        this.bucketMask = buckets - 1;
+    }
+
+    /**
+     * Looks up the entry for {@code key}.
+     *
+     * @param key the Zobrist key of a state
+     * @return the entry, or zero if there isn't one
+     */
+    public long probe(long key) {
+        int slot = slot(key);
+
+        for (int i = slot; i < slot + SLOTS_PER_BUCKET; ++i) {
+            // read each array once, since another thread may be writing the slot
+            long entry = entries[i];
+            if (entry != 0 && (keys[i] ^ entry) == key) {
+                hits.increment();
+                return entry;
+            }
+        }
+
+        misses.increment();
+        if (entries[slot] != 0 || entries[slot + 1] != 0) {
+            collisions.increment();
+        }
+        return 0;
+    }
+
+    /**
+     * Stores the result of searching the state with {@code key}.
+     *
+     * The result replaces the first slot in its bucket if it's for the same state
+     * or it's at least as deep as what's there, and the second slot otherwise.
+     *
+     * @param key the Zobrist key of the state
+     * @param score the score, relative to the player to move
+     * @param depth the number of plies searched below the state
+     * @param bound one of {@link #EXACT}, {@link #LOWER} or {@link #UPPER}
+     * @param move the best move found, or {@link PackedMove#NO_MOVE}
+     */
+    public void store(long key, double score, int depth, int bound, int move) {
+        int slot = slot(key);
+        long entry = pack(score, depth, bound, move);
+
+        long first = entries[slot];
+        if (first == 0 || (keys[slot] ^ first) == key || depth >= depth(first)) {
+            keys[slot] = key ^ entry;
+            entries[slot] = entry;
+        }
+        else {
+            keys[slot + 1] = key ^ entry;
+            entries[slot + 1] = entry;
+        }
+    }
+
+    /**
+     * Removes every entry and resets the counters. This must not be called while
+     * the table is being searched.
+     */
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(entries, 0);
+        hits.reset();
+        misses.reset();
+        collisions.reset();
+    }
+
+    /**
+     * Gets the number of entries the table can hold.
+     *
+     * @return the capacity
+     */
+    public int capacity() {
+        return entries.length;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Gets the number of misses where the bucket was holding other states.
+     *
+     * @return the number of collisions
+     */
+    public long getCollisions() {
+        return collisions.sum();
+    }
+
+    private int slot(long key) {
+        return ((int) key & bucketMask) * SLOTS_PER_BUCKET;
+    }
+
+    static long pack(double score, int depth, int bound, int move) {
+        return ((long) Float.floatToRawIntBits((float) score) << 32)
+                | (long) Math.min(depth, MAX_DEPTH) << 17
+                | (long) bound << 15
+                | move & 0x7fff;
+    }
+
+    public static double score(long entry) {
+        return Float.intBitsToFloat((int) (entry >>> 32));
+    }
+
+    public static int depth(long entry) {
+        return (int) (entry >>> 17) & MAX_DEPTH;
+    }
+
+    public static int bound(long entry) {
+        return (int) (entry >>> 15) & 0x3;
+    }
+
+    public static int move(long entry) {
+        return (int) entry & 0x7fff;
+    }
+
+    /**
+     * Creates a table that uses at most {@code megabytes} of memory.
+     *
+     * @param megabytes the size of the table
+     * @return a new table
+     */
+    public static TranspositionTable create(int megabytes) {
+        checkArgument(megabytes > 0 && megabytes <= 8192, "Table size must be between 1 and 8192 MB.");
+
+        long buckets = Long.highestOneBit((long) megabytes * 1024 * 1024 / (BYTES_PER_SLOT * SLOTS_PER_BUCKET));
+        return new TranspositionTable((int) buckets);
+    }
+}
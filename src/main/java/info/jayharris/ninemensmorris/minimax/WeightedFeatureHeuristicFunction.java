@@ -0,0 +1,170 @@
+package info.jayharris.ninemensmorris.minimax;
+
+import com.google.common.collect.ImmutableMap;
+import info.jayharris.ninemensmorris.Board;
+import info.jayharris.ninemensmorris.Piece;
+import info.jayharris.ninemensmorris.minimax.feature.CountMillsFeature;
+import info.jayharris.ninemensmorris.minimax.feature.CountOpenTwosFeature;
+import info.jayharris.ninemensmorris.minimax.feature.CountPiecesFeature;
+import info.jayharris.ninemensmorris.minimax.feature.Feature;
+import info.jayharris.ninemensmorris.minimax.feature.MobilityFeature;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * A heuristic function that adds up {@link Feature}s, each times a weight.
+ *
+ * Features the board keeps counts for (pieces, mills, open twos and mobility)
+ * are read straight from the board, so evaluating a state with them is a few
+ * multiplications. Other features are computed from the occupancy masks. Either
+ * way, evaluating a state doesn't walk the board's points or allocate anything.
+ *
+ * Weights can be read from a properties file keyed by the names in {@link
+ * #FEATURES}, e.g. {@code mobility = 0.25}. Each weight counts for the player
+ * and against their opponent, so a file describes a zero-sum evaluation.
+ */
+public class WeightedFeatureHeuristicFunction extends AbstractHeuristicFunction {
+
+    /**
+     * the features a weights file can name, by name
+     */
+    public static final Map<String, Function<Piece, Feature>> FEATURES = ImmutableMap.of(
+            "pieces", CountPiecesFeature::new,
+            "mills", CountMillsFeature::new,
+            "open_twos", CountOpenTwosFeature::new,
+            "mobility", MobilityFeature::new);
+
+    private final Feature[] features;
+    private final double[] weights;
+
+    /**
+     * for each feature, whether it's computed for {@code piece} rather than its
+     * opponent
+     */
+    private final boolean[] mine;
+
+    private WeightedFeatureHeuristicFunction(Piece myPiece, Feature[] features, double[] weights) {
+        super(myPiece);
+        this.features = features;
+        this.weights = weights;
+
+        this.mine = new boolean[features.length];
+        for (int i = 0; i < features.length; ++i) {
+            mine[i] = features[i].getPiece() == myPiece;
+        }
+    }
+
+    @Override
+    public double applyAsDouble(MinimaxState state) {
+        Board board = state.getBoard();
+
+        double score = 0;
+        for (int i = 0; i < features.length; ++i) {
+            score += weights[i] * features[i].apply(board);
+        }
+        return score;
+    }
+
+    /**
+     * Evaluates a position that isn't on a board, from the masks alone.
+     *
+     * @param myMask the points occupied by this function's player
+     * @param theirMask the points occupied by the other player
+     * @return the weighted sum of the features
+     */
+    public double evaluate(int myMask, int theirMask) {
+        double score = 0;
+        for (int i = 0; i < features.length; ++i) {
+            score += weights[i] * (mine[i]
+                    ? features[i].apply(myMask, theirMask)
+                    : features[i].apply(theirMask, myMask));
+        }
+        return score;
+    }
+
+    /**
+     * Creates a weighted heuristic function.
+     *
+     * @param myPiece the player to evaluate states for
+     * @param weights each feature's weight, in the order to compute them
+     * @return the heuristic function
+     */
+    public static WeightedFeatureHeuristicFunction create(Piece myPiece, Map<? extends Feature, Double> weights) {
+        checkArgument(!weights.isEmpty(), "There must be at least one feature.");
+
+        Feature[] features = new Feature[weights.size()];
+        double[] w = new double[weights.size()];
+        int i = 0;
+        for (Map.Entry<? extends Feature, Double> entry : weights.entrySet()) {
+            features[i] = entry.getKey();
+            w[i++] = entry.getValue();
+        }
+        return new WeightedFeatureHeuristicFunction(myPiece, features, w);
+    }
+
+    /**
+     * Creates a weighted heuristic function with weights from a properties file.
+     *
+     * @param myPiece the player to evaluate states for
+     * @param path the file
+     * @return the heuristic function
+     * @throws IOException if the file can't be read
+     * @see #readWeights(Path)
+     */
+    public static WeightedFeatureHeuristicFunction create(Piece myPiece, Path path) throws IOException {
+        return fromNames(myPiece, readWeights(path));
+    }
+
+    /**
+     * Creates a weighted heuristic function from weights by feature name. Each
+     * weight counts for {@code myPiece}'s feature and against their opponent's.
+     *
+     * @param myPiece the player to evaluate states for
+     * @param weights the weight of each feature, by its name in {@link #FEATURES}
+     * @return the heuristic function
+     */
+    public static WeightedFeatureHeuristicFunction fromNames(Piece myPiece, Map<String, Double> weights) {
+        checkArgument(FEATURES.keySet().containsAll(weights.keySet()), "Every weight must be for a feature.");
+
+        Map<Feature, Double> features = new LinkedHashMap<>();
+        weights.forEach((name, weight) -> {
+            features.put(FEATURES.get(name).apply(myPiece), weight);
+            features.put(FEATURES.get(name).apply(myPiece.opposite()), -weight);
+        });
+        return create(myPiece, features);
+    }
+
+    /**
+     * Reads weights from a properties file.
+     *
+     * @param path the file
+     * @return the weight of each feature in the file, in the order of {@link #FEATURES}
+     * @throws IOException if the file can't be read, or has a key that isn't a
+     *         feature or a value that isn't a number
+     */
+    public static Map<String, Double> readWeights(Path path) throws IOException {
+        Map<String, String> names = new LinkedHashMap<>();
+        FEATURES.keySet().forEach(name -> names.put(name, name));
+        return WeightsFile.read(path, names, new LinkedHashMap<>());
+    }
+
+    /**
+     * Writes weights to a properties file that {@link #readWeights(Path)} can read.
+     *
+     * @param path the file
+     * @param weights the weight of each feature, by name
+     * @param comment a comment for the top of the file, or {@code null}
+     * @throws IOException if the file can't be written
+     */
+    public static void writeWeights(Path path, Map<String, Double> weights, String comment) throws IOException {
+        checkArgument(FEATURES.keySet().containsAll(weights.keySet()), "Every weight must be for a feature.");
+
+        WeightsFile.write(path, weights, comment);
+    }
+}
@@ -0,0 +1,74 @@
+package info.jayharris.ninemensmorris.minimax;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Reads and writes the weights of a heuristic function as a properties file,
+ * with one {@code name = weight} line per weight.
+ */
+final class WeightsFile {
+
+    private WeightsFile() {
+    }
+
+    /**
+     * Reads weights from a properties file.
+     *
+     * @param path the file
+     * @param names what each name a file can use stands for
+     * @param weights where to put the weight of each name in the file, in the
+     *                order of {@code names}
+     * @param <K> what the weights are for
+     * @return {@code weights}
+     * @throws IOException if the file can't be read, or has a key that isn't
+     *         one of {@code names} or a value that isn't a number
+     */
+    static <K> Map<K, Double> read(Path path, Map<String, K> names, Map<K, Double> weights) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+
+        for (String key : properties.stringPropertyNames()) {
+            if (!names.containsKey(key)) {
+                throw new IOException(String.format("%s: there's no weight called %s.", path, key));
+            }
+        }
+
+        for (Map.Entry<String, K> entry : names.entrySet()) {
+            String value = properties.getProperty(entry.getKey());
+            if (value != null) {
+                try {
+                    weights.put(entry.getValue(), Double.parseDouble(value));
+                }
+                catch (NumberFormatException e) {
+                    throw new IOException(String.format("%s: bad weight %s = %s.", path, entry.getKey(), value), e);
+                }
+            }
+        }
+        return weights;
+    }
+
+    /**
+     * Writes weights to a properties file that {@link #read} can read.
+     *
+     * @param path the file
+     * @param weights the weights, by name
+     * @param comment a comment for the top of the file, or {@code null}
+     * @throws IOException if the file can't be written
+     */
+    static void write(Path path, Map<String, Double> weights, String comment) throws IOException {
+        Properties properties = new Properties();
+        weights.forEach((name, weight) -> properties.setProperty(name, Double.toString(weight)));
+        try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            properties.store(writer, comment);
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package info.jayharris.ninemensmorris.minimax;
+
+import info.jayharris.minimax.search.Search;
+import info.jayharris.ninemensmorris.Piece;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToDoubleFunction;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * A parallel, depth-limited alpha-beta search that splits the work between
+ * threads ("Young Brothers Wait").
+ *
+ * At each state, the first action (the "eldest brother") is searched on its
+ * own, to establish a bound. Then, if there's enough depth left to be worth it,
+ * the rest of the actions are searched at once as {@link RecursiveTask}s on a
+ * {@link ForkJoinPool}, each with its own copy of the state. When one of them
+ * causes a cutoff, the others are told to give up.
+ *
+ * There's no transposition table, so the result doesn't depend on the order in
+ * which threads finish. The score is the same as a serial alpha-beta search to
+ * the same depth, and so is the action: the first of the best actions, in the
+ * order {@link MoveGenerator} generates them.
+ */
+public class YoungBrothersWaitSearch implements Search<MinimaxState, MinimaxAction> {
+
+    /**
+     * by default, don't split a state with fewer than this many plies left to search
+     */
+    public static final int DEFAULT_SPLIT_DEPTH = 3;
+
+    private final int depth;
+    private final ToDoubleFunction<MinimaxState> heuristic;
+    private final Piece myPiece;
+    private final ForkJoinPool pool;
+    private final int splitDepth;
+
+    private final LongAdder nodes = new LongAdder();
+
+    private double score;
+
+    public YoungBrothersWaitSearch(int depth, ToDoubleFunction<MinimaxState> heuristic, Piece myPiece,
+                                   ForkJoinPool pool) {
+        this(depth, heuristic, myPiece, pool, DEFAULT_SPLIT_DEPTH);
+    }
+
+    public YoungBrothersWaitSearch(int depth, ToDoubleFunction<MinimaxState> heuristic, Piece myPiece,
+                                   ForkJoinPool pool, int splitDepth) {
+        checkArgument(depth > 0, "Depth must be positive.");
+        checkArgument(splitDepth > 0, "Split depth must be positive.");
+
+        this.depth = depth;
+        this.heuristic = heuristic;
+        this.myPiece = myPiece;
+        this.pool = pool;
+        this.splitDepth = splitDepth;
+    }
+
+    @Override
+    public MinimaxAction perform(MinimaxState initialState) {
+        nodes.reset();
+
+        SearchState state = SearchState.create(initialState);
+        int move = pool.invoke(new RootTask(state));
+
+        return move == PackedMove.NO_MOVE ? null : MinimaxAction.fromPackedMove(move);
+    }
+
+    /**
+     * Gets the score of the action returned by the last search, relative to
+     * {@code myPiece}.
+     *
+     * @return the score
+     */
+    public double getScore() {
+        return score;
+    }
+
+    /**
+     * Gets the number of states visited by the last search, by all threads.
+     *
+     * @return the number of nodes
+     */
+    public long getNodes() {
+        return nodes.sum();
+    }
+
+    /**
+     * A group of sibling searches running at the same time. If one of them causes
+     * a cutoff, the rest are wasted work.
+     *
+     * At the root, each sibling gets a split point of its own, chained to the
+     * next sibling's, since only the siblings after a winning move can be given up.
+     */
+    private static final class SplitPoint {
+
+        private final SplitPoint parent;
+        private SplitPoint next;
+        private volatile boolean cutoff;
+
+        private SplitPoint(SplitPoint parent) {
+            this.parent = parent;
+        }
+
+        private void cut() {
+            if (next == null) {
+                cutoff = true;
+            }
+            for (SplitPoint p = next; p != null; p = p.next) {
+                p.cutoff = true;
+            }
+        }
+
+        /**
+         * Determines whether this split point or any enclosing one has been cut off.
+         */
+        private boolean isCutoff() {
+            for (SplitPoint p = this; p != null; p = p.parent) {
+                if (p.cutoff) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Searches a subtree on one thread at a time, splitting off sibling searches
+     * where there's enough depth left.
+     */
+    private final class Worker {
+
+        private final SearchState state;
+        private final SplitPoint splitPoint;
+        private final SearchContext context;
+
+        private boolean aborted;
+        private long visited;
+
+        private Worker(SearchState state, SplitPoint splitPoint, int depth) {
+            this.state = state;
+            this.splitPoint = splitPoint;
+            this.context = new SearchContext(heuristic, myPiece, depth + 1);
+        }
+
+        private double search(int depth, double alpha, double beta, int ply) {
+            ++visited;
+
+            // The caller throws the result away, so return anything.
+            if (aborted || splitPoint != null && splitPoint.isCutoff()) {
+                aborted = true;
+                return 0.0;
+            }
+
+            if (state.isStalemate()) {
+                return 0.0;
+            }
+            if (depth <= 0) {
+                return state.terminalTest() ? Double.NEGATIVE_INFINITY : context.evaluate(state);
+            }
+
+            int[] moves = context.buffer(ply);
+            int n = state.generate(moves, 0);
+            if (n == 0) {
+                return Double.NEGATIVE_INFINITY;
+            }
+
+            // the eldest brother
+            state.make(moves[0]);
+            double best = -search(depth - 1, -beta, -alpha, ply + 1);
+            state.unmake(moves[0]);
+
+            if (best >= beta || n == 1) {
+                return best;
+            }
+            alpha = Math.max(alpha, best);
+
+            if (depth < splitDepth) {
+                for (int i = 1; i < n; ++i) {
+                    state.make(moves[i]);
+                    double value = -search(depth - 1, -beta, -alpha, ply + 1);
+                    state.unmake(moves[i]);
+
+                    best = Math.max(best, value);
+                    alpha = Math.max(alpha, best);
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+                return best;
+            }
+
+            // the younger brothers
+            SplitPoint[] splitPoints = new SplitPoint[n - 1];
+            Arrays.fill(splitPoints, new SplitPoint(splitPoint));
+
+            List<SiblingTask> siblings = fork(moves, n, depth - 1, alpha, beta, splitPoints);
+            boolean gaveUp = false;
+            for (SiblingTask sibling : siblings) {
+                double value = sibling.join();
+                if (Double.isNaN(value)) {
+                    gaveUp = true;
+                }
+                else {
+                    best = Math.max(best, value);
+                }
+            }
+
+            // A sibling gives up without another one failing high only when an
+            // enclosing split point was cut, and then best is only partial.
+            if (splitPoint != null && splitPoint.isCutoff() || gaveUp && best < beta) {
+                aborted = true;
+                return 0.0;
+            }
+            return best;
+        }
+
+        /**
+         * Searches all but the first of {@code moves} at once, each from a copy of
+         * the state, and waits for them.
+         *
+         * @param splitPoints the split point for each move after the first
+         */
+        private List<SiblingTask> fork(int[] moves, int n, int depth, double alpha, double beta,
+                                       SplitPoint[] splitPoints) {
+            List<SiblingTask> siblings = new ArrayList<>(n - 1);
+            for (int i = 1; i < n; ++i) {
+                SearchState child = SearchState.copy(state);
+                child.make(moves[i]);
+
+                siblings.add(new SiblingTask(new Worker(child, splitPoints[i - 1], depth), depth, alpha, beta));
+            }
+            RecursiveTask.invokeAll(siblings);
+            return siblings;
+        }
+    }
+
+    /**
+     * Searches the state after one of a group of sibling moves.
+     *
+     * The result is the score of the move for the player who made it, or
+     * {@code NaN} if the search gave up because of a cutoff.
+     */
+    private final class SiblingTask extends RecursiveTask<Double> {
+
+        private final Worker worker;
+        private final int depth;
+        private final double alpha, beta;
+
+        private SiblingTask(Worker worker, int depth, double alpha, double beta) {
+            this.worker = worker;
+            this.depth = depth;
+            this.alpha = alpha;
+            this.beta = beta;
+        }
+
+        @Override
+        protected Double compute() {
+            double value = -worker.search(depth, -beta, -alpha, 0);
+            nodes.add(worker.visited);
+
+            if (worker.aborted) {
+                return Double.NaN;
+            }
+            if (value >= beta) {
+                worker.splitPoint.cut();
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Searches the root state and gets the best move.
+     */
+    private final class RootTask extends RecursiveTask<Integer> {
+
+        private final SearchState state;
+
+        private RootTask(SearchState state) {
+            this.state = state;
+        }
+
+        @Override
+        protected Integer compute() {
+            Worker worker = new Worker(state, null, depth);
+            int[] moves = worker.context.buffer(0);
+            int n = state.isStalemate() ? 0 : state.generate(moves, 0);
+            ++worker.visited;
+
+            if (n == 0) {
+                nodes.add(worker.visited);
+                return PackedMove.NO_MOVE;
+            }
+
+            state.make(moves[0]);
+            double best = -worker.search(depth - 1, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, 1);
+            state.unmake(moves[0]);
+            int bestMove = moves[0];
+
+            if (best == Double.POSITIVE_INFINITY) {
+                n = 1;
+            }
+
+            // Every younger brother is searched with the eldest brother's score as
+            // alpha, so a score above it is exact. The first of the best scores wins.
+            SplitPoint[] splitPoints = new SplitPoint[n - 1];
+            for (int i = splitPoints.length - 1; i >= 0; --i) {
+                splitPoints[i] = new SplitPoint(null);
+                splitPoints[i].next = i + 1 < splitPoints.length ? splitPoints[i + 1] : null;
+            }
+
+            List<SiblingTask> siblings = worker.fork(
+                    moves, n, depth - 1, best, Double.POSITIVE_INFINITY, splitPoints);
+            for (int i = 0; i < siblings.size(); ++i) {
+                double value = siblings.get(i).join();
+                if (value > best) {
+                    best = value;
+                    bestMove = moves[i + 1];
+                }
+            }
+
+            nodes.add(worker.visited);
+            score = state.getToMove() == myPiece ? best : -best;
+            return bestMove;
+        }
+    }
+}
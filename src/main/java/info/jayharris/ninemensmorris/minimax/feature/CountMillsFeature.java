@@ -1,10 +1,8 @@
 package info.jayharris.ninemensmorris.minimax.feature;
 
 import info.jayharris.ninemensmorris.Board;
+import info.jayharris.ninemensmorris.Coordinate;
 import info.jayharris.ninemensmorris.Piece;
-import info.jayharris.ninemensmorris.minimax.MinimaxState;
-
-import java.util.function.Predicate;
 
 /**
  * This feature counts the number of mills `piece` has on the board.
@@ -16,15 +14,18 @@ public class CountMillsFeature extends Feature {
     }
 
     @Override
-    public double apply(MinimaxState state) {
-        Board board = state.getBoard();
-        return board.getMills().stream()
-                .filter(isCompleteMill(piece))
-                .count();
+    public double apply(Board board) {
+        return board.countMills(piece);
     }
 
-    private final static Predicate<Board.Mill> isCompleteMill(Piece piece) {
-        return mill -> mill.getPoints().stream()
-                .allMatch(point -> point.getPiece() == piece);
+    @Override
+    public double apply(int own, int other) {
+        int mills = 0;
+        for (int mill : Coordinate.MILLS) {
+            if ((own & mill) == mill) {
+                ++mills;
+            }
+        }
+        return mills;
     }
 }
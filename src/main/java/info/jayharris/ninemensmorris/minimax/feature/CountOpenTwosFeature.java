@@ -0,0 +1,32 @@
+package info.jayharris.ninemensmorris.minimax.feature;
+
+import info.jayharris.ninemensmorris.Board;
+import info.jayharris.ninemensmorris.Coordinate;
+import info.jayharris.ninemensmorris.Piece;
+
+/**
+ * This feature counts the number of mills where `piece` has two points and the
+ * third is unoccupied, i.e. the mills `piece` threatens to close.
+ */
+public class CountOpenTwosFeature extends Feature {
+
+    public CountOpenTwosFeature(Piece piece) {
+        super(piece);
+    }
+
+    @Override
+    public double apply(Board board) {
+        return board.countOpenTwos(piece);
+    }
+
+    @Override
+    public double apply(int own, int other) {
+        int openTwos = 0;
+        for (int mill : Coordinate.MILLS) {
+            if (Integer.bitCount(own & mill) == 2 && (other & mill) == 0) {
+                ++openTwos;
+            }
+        }
+        return openTwos;
+    }
+}
@@ -1,7 +1,7 @@
 package info.jayharris.ninemensmorris.minimax.feature;
 
+import info.jayharris.ninemensmorris.Board;
 import info.jayharris.ninemensmorris.Piece;
-import info.jayharris.ninemensmorris.minimax.MinimaxState;
 
 /**
  * This feature counts the number of one player's pieces on the board.
@@ -13,7 +13,12 @@ public class CountPiecesFeature extends Feature {
     }
 
     @Override
-    public double apply(MinimaxState state) {
-        return state.getBoard().getOccupiedPoints(piece).size();
+    public double apply(Board board) {
+        return board.count(piece);
+    }
+
+    @Override
+    public double apply(int own, int other) {
+        return Integer.bitCount(own);
     }
 }
@@ -1,5 +1,6 @@
 package info.jayharris.ninemensmorris.minimax.feature;
 
+import info.jayharris.ninemensmorris.Board;
 import info.jayharris.ninemensmorris.Piece;
 import info.jayharris.ninemensmorris.minimax.MinimaxState;
 
@@ -10,6 +11,12 @@ import info.jayharris.ninemensmorris.minimax.MinimaxState;
  * player has available or the total point value of the current player's pieces
  * on a chessboard, or a number representing the quality of the current player's
  * defense, etc.
+ *
+ * A feature is computed from the two players' occupancy masks, so that a
+ * {@link info.jayharris.ninemensmorris.minimax.WeightedFeatureHeuristicFunction}
+ * can read them once and compute all of its features from them. The board
+ * keeps running counts of some features as pieces are set, and those features
+ * read them instead.
  */
 public abstract class Feature {
 
@@ -23,5 +30,27 @@ public abstract class Feature {
         return piece;
     }
 
-    public abstract double apply(MinimaxState state);
+    public double apply(MinimaxState state) {
+        return apply(state.getBoard());
+    }
+
+    /**
+     * Computes the feature for a board. A feature that the board keeps a count
+     * for reads the count rather than computing it from the masks.
+     *
+     * @param board the board
+     * @return the value of the feature
+     */
+    public double apply(Board board) {
+        return apply(board.getOccupancy(piece), board.getOccupancy(piece.opposite()));
+    }
+
+    /**
+     * Computes the feature from the occupancy masks.
+     *
+     * @param own the points occupied by {@code piece}
+     * @param other the points occupied by the other player
+     * @return the value of the feature
+     */
+    public abstract double apply(int own, int other);
 }
@@ -1,8 +1,8 @@
 package info.jayharris.ninemensmorris.minimax.feature;
 
-import info.jayharris.ninemensmorris.Board.Point;
+import info.jayharris.ninemensmorris.Board;
+import info.jayharris.ninemensmorris.Coordinate;
 import info.jayharris.ninemensmorris.Piece;
-import info.jayharris.ninemensmorris.minimax.MinimaxState;
 
 /**
  * This feature counts the number (`from`, `to`) pairs where `from` is occupied
@@ -15,15 +15,18 @@ public class MobilityFeature extends Feature {
     }
 
     @Override
-    public double apply(MinimaxState state) {
-        return state.getBoard().getOccupiedPoints(piece).stream()
-                .mapToLong(MobilityFeature::countUnoccupiedNeighbors)
-                .sum();
+    public double apply(Board board) {
+        return board.getMobility(piece);
     }
 
-    private static long countUnoccupiedNeighbors(Point point) {
-        return point.getNeighbors().stream()
-                .filter(Point::isUnoccupied)
-                .count();
+    @Override
+    public double apply(int own, int other) {
+        int unoccupied = ~(own | other) & Board.ALL_POINTS;
+
+        int mobility = 0;
+        for (int m = own; m != 0; m &= m - 1) {
+            mobility += Integer.bitCount(Coordinate.NEIGHBOR_MASKS[Integer.numberOfTrailingZeros(m)] & unoccupied);
+        }
+        return mobility;
     }
 }
@@ -45,7 +45,7 @@ public final class MovePiece extends BaseMove implements InitialMove {
             throw destinationOccupied(destination);
         }
 
-        if (!canFly && !initial.getNeighbors().contains(destination)) {
+        if (!canFly && !initial.isAdjacentTo(destination)) {
             throw pointsNotAdjacent(initial, destination);
         }
     }
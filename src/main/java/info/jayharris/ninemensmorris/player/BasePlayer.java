@@ -11,9 +11,10 @@ import info.jayharris.ninemensmorris.move.PlacePiece;
 public abstract class BasePlayer {
 
     public final static Piece FIRST_PLAYER = Piece.BLACK;
+    public final static int STARTING_PIECES = 9;
 
     protected final Piece piece;
-    protected int startingPieces = 9;
+    protected int startingPieces = STARTING_PIECES;
 
     BasePlayer(Piece piece) {
         this.piece = piece;
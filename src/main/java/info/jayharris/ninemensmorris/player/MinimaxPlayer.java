@@ -5,11 +5,13 @@ import info.jayharris.ninemensmorris.Board;
 import info.jayharris.ninemensmorris.Piece;
 import info.jayharris.ninemensmorris.StalemateChecker;
 import info.jayharris.ninemensmorris.Turn;
+import info.jayharris.ninemensmorris.book.OpeningBook;
 import info.jayharris.ninemensmorris.minimax.MinimaxAction;
 import info.jayharris.ninemensmorris.minimax.MinimaxState;
 import info.jayharris.ninemensmorris.move.CapturePiece;
 import info.jayharris.ninemensmorris.move.MovePiece;
 import info.jayharris.ninemensmorris.move.PlacePiece;
+import info.jayharris.ninemensmorris.tablebase.Tablebase;
 
 import java.util.function.Supplier;
 
@@ -17,16 +19,48 @@ public class MinimaxPlayer extends BasePlayer {
 
     private Supplier<? extends Search<MinimaxState, MinimaxAction>> searchSupplier;
     private StalemateChecker stalemateChecker;
+    private Tablebase tablebase;
+    private OpeningBook book;
 
     public MinimaxPlayer(Piece piece, Supplier<? extends Search<MinimaxState, MinimaxAction>> searchSupplier) {
+        this(piece, searchSupplier, Tablebase.empty());
+    }
+
+    /**
+     * Constructs a player that plays straight from {@code tablebase} once the game
+     * gets there, and searches otherwise.
+     */
+    public MinimaxPlayer(Piece piece,
+                         Supplier<? extends Search<MinimaxState, MinimaxAction>> searchSupplier,
+                         Tablebase tablebase) {
+        this(piece, searchSupplier, tablebase, OpeningBook.empty());
+    }
+
+    /**
+     * Constructs a player that plays straight from {@code book} at the start of the
+     * game and from {@code tablebase} at the end, and searches in between.
+     */
+    public MinimaxPlayer(Piece piece,
+                         Supplier<? extends Search<MinimaxState, MinimaxAction>> searchSupplier,
+                         Tablebase tablebase,
+                         OpeningBook book) {
         super(piece);
         this.searchSupplier = searchSupplier;
         this.stalemateChecker = StalemateChecker.create();
+        this.tablebase = tablebase;
+        this.book = book;
     }
 
     @Override
     public Turn takeTurn(Board board) {
-        MinimaxAction action = searchSupplier.get().perform(MinimaxState.create(board, this, stalemateChecker));
+        MinimaxState state = MinimaxState.create(board, this, stalemateChecker);
+        MinimaxAction action = book.bestMove(state);
+        if (action == null) {
+            action = tablebase.bestMove(state);
+        }
+        if (action == null) {
+            action = searchSupplier.get().perform(state);
+        }
 
         Turn turn = Turn.initialize(this, board);
 
@@ -39,7 +73,7 @@ public class MinimaxPlayer extends BasePlayer {
                     piece,
                     board.getPoint(action.getMovePieceFrom()),
                     board.getPoint(action.getMovePieceTo()),
-                    board.getOccupiedPoints(piece).size() == 3));
+                    board.count(piece) == 3));
         }
 
         if (action.isCapturePiece()) {
@@ -47,7 +81,7 @@ public class MinimaxPlayer extends BasePlayer {
         }
 
         if (action.isMovePiece()) {
-            stalemateChecker.accept(Board.copy(board));
+            stalemateChecker.accept(board);
         }
 
         return turn;
@@ -88,7 +88,7 @@ public class TerminalPlayer extends TwoStageTurnPlayer {
 
             try {
                 return MovePiece.createLegal(piece, board.getPoint(init), board.getPoint(dest),
-                                             board.getOccupiedPoints(piece).size() == 3);
+                                             board.count(piece) == 3);
             }
             catch (IllegalMoveException e) {
                 out.printf(TRY_AGAIN_TEMPLATE, e.getMessage());
@@ -0,0 +1,220 @@
+package info.jayharris.ninemensmorris.tablebase;
+
+import info.jayharris.ninemensmorris.PositionIndex;
+import info.jayharris.ninemensmorris.minimax.MinimaxAction;
+import info.jayharris.ninemensmorris.minimax.MinimaxState;
+import info.jayharris.ninemensmorris.minimax.MoveGenerator;
+import info.jayharris.ninemensmorris.minimax.PackedMove;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The exact result of every "move piece" phase position with few enough pieces,
+ * from files made by {@link TablebaseGenerator}.
+ *
+ * There is one file per number of pieces for the player to move and for the
+ * other player, holding one byte per position in the order {@link PositionIndex}
+ * ranks them, with the player to move first. The files are memory-mapped, so
+ * only the parts that are probed get read from disk. A byte is one of:
+ *
+ * <ul>
+ *     <li>zero, if the game is a draw with best play, i.e. neither player can
+ *     win without letting the position repeat;</li>
+ *     <li>one more than the number of plies until the game ends with best play,
+ *     if it doesn't. If that number is odd, the player to move wins, and
+ *     otherwise loses.</li>
+ * </ul>
+ *
+ * A probe returns the byte as an {@code int}, or {@link #UNKNOWN} if there's no
+ * file for the position.
+ *
+ * A tablebase doesn't know the history of the game, so a winning line could in
+ * principle run into a position from before the last capture and end in a
+ * stalemate.
+ */
+public final class Tablebase {
+
+    public static final int UNKNOWN = -1;
+    public static final int DRAW = 0;
+
+    /**
+     * the fewest pieces a player can have and still be playing
+     */
+    public static final int MIN_PIECES = 3;
+    public static final int MAX_PIECES = 9;
+
+    private static final Tablebase EMPTY = new Tablebase();
+
+    private final ByteBuffer[][] tables = new ByteBuffer[MAX_PIECES + 1][MAX_PIECES + 1];
+    private final PositionIndex[][] indices = new PositionIndex[MAX_PIECES + 1][MAX_PIECES + 1];
+
+    private final ThreadLocal<int[]> buffers = ThreadLocal.withInitial(() -> new int[MoveGenerator.MAX_MOVES]);
+
+    private Tablebase() { }
+
+    /**
+     * Looks up a position.
+     *
+     * @param mine the points occupied by the player to move
+     * @param theirs the points occupied by the other player
+     * @return the result, or {@link #UNKNOWN} if it isn't in the tablebase
+     */
+    public int probe(int mine, int theirs) {
+        int m = Integer.bitCount(mine), t = Integer.bitCount(theirs);
+        if (m < MIN_PIECES) {
+            return encode(0);
+        }
+        if (m > MAX_PIECES || t < MIN_PIECES || t > MAX_PIECES || tables[m][t] == null) {
+            return UNKNOWN;
+        }
+        return tables[m][t].get((int) indices[m][t].rank(mine, theirs)) & 0xff;
+    }
+
+    /**
+     * Looks up a state.
+     *
+     * @param state the state
+     * @return the result, or {@link #UNKNOWN} if it isn't in the tablebase
+     */
+    public int probe(MinimaxState state) {
+        if (state.getPlayerPieces() > 0) {
+            return UNKNOWN;
+        }
+        return probe(state.getBoard().getOccupancy(state.getToMove()),
+                state.getBoard().getOccupancy(state.getToMove().opposite()));
+    }
+
+    /**
+     * Finds the best action from {@code state}: the quickest win if there's a win,
+     * a draw if there's a draw, and the slowest loss otherwise.
+     *
+     * @param state the state
+     * @return the best action, or {@code null} if the state isn't in the tablebase
+     */
+    public MinimaxAction bestMove(MinimaxState state) {
+        if (probe(state) == UNKNOWN) {
+            return null;
+        }
+
+        int mine = state.getBoard().getOccupancy(state.getToMove());
+        int theirs = state.getBoard().getOccupancy(state.getToMove().opposite());
+        int[] moves = buffers.get();
+        int n = MoveGenerator.generate(mine, theirs, 0, moves, 0);
+
+        int best = PackedMove.NO_MOVE, bestRank = Integer.MIN_VALUE;
+        for (int i = 0; i < n; ++i) {
+            int move = moves[i];
+            int mineAfter = mine & ~(1 << PackedMove.from(move)) | 1 << PackedMove.to(move);
+            int theirsAfter = PackedMove.isCapturePiece(move) ? theirs & ~(1 << PackedMove.capture(move)) : theirs;
+
+            int result = probe(theirsAfter, mineAfter);
+            if (result == UNKNOWN) {
+                return null;
+            }
+
+            // The result is for the other player. Rank it for the player to move:
+            // wins, quickest first, then draws, then losses, slowest first.
+            int rank = result == DRAW ? 1000 : isLoss(result) ? 2000 - distance(result) : distance(result);
+            if (rank > bestRank) {
+                best = move;
+                bestRank = rank;
+            }
+        }
+        return best == PackedMove.NO_MOVE ? null : MinimaxAction.fromPackedMove(best);
+    }
+
+    /**
+     * Determines whether there's a file for the positions with these numbers of pieces.
+     *
+     * @param mine the number of pieces the player to move has
+     * @param theirs the number of pieces the other player has
+     * @return true iff the positions are in the tablebase
+     */
+    public boolean covers(int mine, int theirs) {
+        return mine >= MIN_PIECES && mine <= MAX_PIECES && theirs >= MIN_PIECES && theirs <= MAX_PIECES
+                && tables[mine][theirs] != null;
+    }
+
+    /**
+     * Determines whether a result is a win for the player to move.
+     *
+     * @param result a result other than {@link #UNKNOWN}
+     * @return true iff the player to move wins
+     */
+    public static boolean isWin(int result) {
+        return result != DRAW && (distance(result) & 1) == 1;
+    }
+
+    /**
+     * Determines whether a result is a loss for the player to move.
+     *
+     * @param result a result other than {@link #UNKNOWN}
+     * @return true iff the player to move loses
+     */
+    public static boolean isLoss(int result) {
+        return result != DRAW && (distance(result) & 1) == 0;
+    }
+
+    /**
+     * Gets the number of plies until the game ends.
+     *
+     * @param result a win or a loss
+     * @return the number of plies
+     */
+    public static int distance(int result) {
+        return result - 1;
+    }
+
+    static int encode(int distance) {
+        return distance + 1;
+    }
+
+    static String fileName(int mine, int theirs) {
+        return String.format("nmm-%d-%d.tb", mine, theirs);
+    }
+
+    /**
+     * Opens every tablebase file in {@code directory}.
+     *
+     * @param directory the directory
+     * @return the tablebase
+     * @throws IOException if a file can't be read, or is the wrong size
+     */
+    public static Tablebase open(Path directory) throws IOException {
+        Tablebase tablebase = new Tablebase();
+
+        for (int m = MIN_PIECES; m <= MAX_PIECES; ++m) {
+            for (int t = MIN_PIECES; t <= MAX_PIECES; ++t) {
+                Path path = directory.resolve(fileName(m, t));
+                if (!Files.exists(path)) {
+                    continue;
+                }
+
+                PositionIndex index = PositionIndex.of(m, t);
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                    if (channel.size() != index.size()) {
+                        throw new IOException(String.format("%s should be %d bytes, but is %d.",
+                                path, index.size(), channel.size()));
+                    }
+                    tablebase.tables[m][t] = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                    tablebase.indices[m][t] = index;
+                }
+            }
+        }
+        return tablebase;
+    }
+
+    /**
+     * Gets a tablebase with no positions in it.
+     *
+     * @return the empty tablebase
+     */
+    public static Tablebase empty() {
+        return EMPTY;
+    }
+}
@@ -0,0 +1,237 @@
+package info.jayharris.ninemensmorris.tablebase;
+
+import info.jayharris.ninemensmorris.PositionIndex;
+import info.jayharris.ninemensmorris.minimax.MoveGenerator;
+import info.jayharris.ninemensmorris.minimax.PackedMove;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.PrimitiveIterator;
+import java.util.Spliterators;
+import java.util.stream.IntStream;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static info.jayharris.ninemensmorris.tablebase.Tablebase.MIN_PIECES;
+
+/**
+ * Solves the "move piece" phase by retrograde analysis, and writes the results
+ * as {@link Tablebase} files.
+ *
+ * Positions are solved one subspace at a time, where a subspace is every position
+ * with given numbers of pieces for the player to move and the other player. A move
+ * without a capture goes from the subspace (m, t) to (t, m), so the two are solved
+ * together. A capture goes from (m, t) to (t - 1, m), which has fewer pieces, so
+ * subspaces are solved in order of the total number of pieces, starting with 3v3.
+ *
+ * Within a pair of subspaces, the positions are solved in order of distance. A
+ * position where the player to move has no moves is a loss in zero. After that,
+ * in round {@code k}, a position is a win in {@code k} if some move leads to a
+ * loss in {@code k - 1}, and a loss in {@code k} if every move leads to a win in at
+ * most {@code k - 1}. The rounds stop when nothing new is solved, and whatever
+ * is left is a draw. Each round is spread over every core.
+ *
+ * A subspace whose file already exists is read rather than solved again.
+ */
+public class TablebaseGenerator {
+
+    /**
+     * a distance has to fit in a byte, after the one added to it
+     */
+    private static final int MAX_DISTANCE = 0xfe;
+
+    private final Path directory;
+    private final int maxPieces;
+
+    private final byte[][][] tables = new byte[Tablebase.MAX_PIECES + 1][Tablebase.MAX_PIECES + 1][];
+    private final int[][] maxDistances = new int[Tablebase.MAX_PIECES + 1][Tablebase.MAX_PIECES + 1];
+
+    public TablebaseGenerator(Path directory, int maxPieces) {
+        checkArgument(maxPieces >= MIN_PIECES && maxPieces <= Tablebase.MAX_PIECES,
+                "The number of pieces must be between %s and %s.", MIN_PIECES, Tablebase.MAX_PIECES);
+
+        this.directory = directory;
+        this.maxPieces = maxPieces;
+    }
+
+    /**
+     * Solves every subspace where both players have at most {@code maxPieces}
+     * pieces, and writes the files that don't exist yet.
+     *
+     * @throws IOException if a file can't be read or written
+     */
+    public void generate() throws IOException {
+        Files.createDirectories(directory);
+
+        for (int total = 2 * MIN_PIECES; total <= 2 * maxPieces; ++total) {
+            for (int m = MIN_PIECES; m <= total / 2; ++m) {
+                int t = total - m;
+                if (t <= maxPieces) {
+                    solve(m, t);
+                }
+            }
+        }
+    }
+
+    /**
+     * Solves the subspaces (m, t) and (t, m).
+     */
+    private void solve(int m, int t) throws IOException {
+        if (load(m, t) && load(t, m)) {
+            return;
+        }
+
+        byte[] first = allocate(m, t), second = m == t ? first : allocate(t, m);
+        tables[m][t] = first;
+        tables[t][m] = second;
+
+        int lowerDistance = Math.max(maxDistance(t - 1, m), maxDistance(m - 1, t));
+        for (int k = 0; ; ++k) {
+            checkState(k <= MAX_DISTANCE, "%sv%s has a position more than %s plies from the end.", m, t, MAX_DISTANCE);
+
+            int solved = round(m, t, k) + (m == t ? 0 : round(t, m, k));
+            if (solved == 0 && k > lowerDistance + 1) {
+                break;
+            }
+        }
+
+        save(m, t);
+        if (m != t) {
+            save(t, m);
+        }
+    }
+
+    /**
+     * Solves every position in (m, t) that's a win or a loss in {@code k}.
+     *
+     * @return the number of positions solved
+     */
+    private int round(int m, int t, int k) {
+        PositionIndex index = PositionIndex.of(m, t);
+        byte[] table = tables[m][t];
+        int block = index.getSecondSubsets();
+
+        // one task per set of points for the player to move
+        return IntStream.range(0, index.getFirstSubsets()).parallel().map(b -> {
+            PrimitiveIterator.OfLong positions = Spliterators.iterator(
+                    index.spliterator((long) b * block, (long) (b + 1) * block));
+            int[] moves = new int[MoveGenerator.MAX_MOVES];
+
+            int solved = 0;
+            for (int rank = b * block; positions.hasNext(); ++rank) {
+                long position = positions.nextLong();
+                if (table[rank] != Tablebase.DRAW) {
+                    continue;
+                }
+
+                int distance = solve(PositionIndex.first(position), PositionIndex.second(position), k, moves);
+                if (distance == k) {
+                    table[rank] = (byte) Tablebase.encode(k);
+                    ++solved;
+                }
+            }
+            return solved;
+        }).sum();
+    }
+
+    /**
+     * Determines whether a position is a win or a loss in {@code k}, given every
+     * position that's a win or a loss in fewer.
+     *
+     * @return {@code k} if it is, and -1 otherwise
+     */
+    private int solve(int mine, int theirs, int k, int[] moves) {
+        int n = MoveGenerator.generate(mine, theirs, 0, moves, 0);
+        if (n == 0) {
+            return 0;
+        }
+        if (k == 0) {
+            return -1;
+        }
+
+        boolean win = (k & 1) == 1;
+        for (int i = 0; i < n; ++i) {
+            int move = moves[i];
+            int mineAfter = mine & ~(1 << PackedMove.from(move)) | 1 << PackedMove.to(move);
+            int theirsAfter = PackedMove.isCapturePiece(move) ? theirs & ~(1 << PackedMove.capture(move)) : theirs;
+
+            // what the move leads to, for the other player
+            int result = lookup(theirsAfter, mineAfter);
+            if (win) {
+                if (Tablebase.isLoss(result) && Tablebase.distance(result) == k - 1) {
+                    return k;
+                }
+            }
+            else if (!Tablebase.isWin(result) || Tablebase.distance(result) > k - 1) {
+                return -1;
+            }
+        }
+        return win ? -1 : k;
+    }
+
+    private int lookup(int mine, int theirs) {
+        int m = Integer.bitCount(mine);
+        if (m < MIN_PIECES) {
+            return Tablebase.encode(0);
+        }
+        int t = Integer.bitCount(theirs);
+        return tables[m][t][(int) PositionIndex.of(m, t).rank(mine, theirs)] & 0xff;
+    }
+
+    private static byte[] allocate(int m, int t) {
+        long size = PositionIndex.of(m, t).size();
+        checkArgument(size <= Integer.MAX_VALUE - 8, "%sv%s has too many positions to solve in memory.", m, t);
+        return new byte[(int) size];
+    }
+
+    private int maxDistance(int m, int t) {
+        return m < MIN_PIECES || t < MIN_PIECES ? 0 : maxDistances[m][t];
+    }
+
+    private boolean load(int m, int t) throws IOException {
+        Path path = directory.resolve(Tablebase.fileName(m, t));
+        if (!Files.exists(path)) {
+            return false;
+        }
+
+        byte[] table = Files.readAllBytes(path);
+        if (table.length != PositionIndex.of(m, t).size()) {
+            throw new IOException(String.format("%s is the wrong size.", path));
+        }
+        tables[m][t] = table;
+        maxDistances[m][t] = maxDistance(table);
+        return true;
+    }
+
+    private void save(int m, int t) throws IOException {
+        maxDistances[m][t] = maxDistance(tables[m][t]);
+        Files.write(directory.resolve(Tablebase.fileName(m, t)), tables[m][t]);
+    }
+
+    private static int maxDistance(byte[] table) {
+        int max = 0;
+        for (byte b : table) {
+            max = Math.max(max, Tablebase.distance(b & 0xff));
+        }
+        return max;
+    }
+
+    /**
+     * Generates tablebase files.
+     *
+     * @param args the directory to write to (default "tablebase"), and the most pieces
+     *             either player has (default 3)
+     * @throws IOException if a file can't be read or written
+     */
+    public static void main(String... args) throws IOException {
+        Path directory = Paths.get(args.length > 0 ? args[0] : "tablebase");
+        int maxPieces = args.length > 1 ? Integer.parseInt(args[1]) : MIN_PIECES;
+
+        long start = System.nanoTime();
+        new TablebaseGenerator(directory, maxPieces).generate();
+        System.out.printf("Generated tablebases up to %dv%d in %s in %.1f s.%n",
+                maxPieces, maxPieces, directory, (System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,72 @@
+package info.jayharris.ninemensmorris.tuning;
+
+import info.jayharris.ninemensmorris.PositionIndex;
+
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Positions, each labeled with how the game went on to turn out for the player
+ * to move: {@link #WIN}, {@link #DRAW} or {@link #LOSS}.
+ *
+ * A position is packed by {@link PositionIndex#pack} with the player to move's
+ * mask first.
+ */
+public final class LabeledPositions {
+
+    public static final float WIN = 1, DRAW = 0.5f, LOSS = 0;
+
+    private final long[] positions;
+    private final float[] results;
+
+    private LabeledPositions(long[] positions, float[] results) {
+        this.positions = positions;
+        this.results = results;
+    }
+
+    public int size() {
+        return positions.length;
+    }
+
+    public long getPosition(int index) {
+        return positions[index];
+    }
+
+    public float getResult(int index) {
+        return results[index];
+    }
+
+    /**
+     * Creates labeled positions.
+     *
+     * @param positions the positions; this array is used, not copied
+     * @param results the label of each position; this array is used, not copied
+     * @return the labeled positions
+     */
+    public static LabeledPositions of(long[] positions, float[] results) {
+        checkArgument(positions.length == results.length, "Every position must have a result.");
+
+        return new LabeledPositions(positions, results);
+    }
+
+    /**
+     * Puts labeled positions together.
+     *
+     * @param parts the labeled positions
+     * @return all of them, in order
+     */
+    public static LabeledPositions concat(List<LabeledPositions> parts) {
+        int size = parts.stream().mapToInt(LabeledPositions::size).sum();
+        long[] positions = new long[size];
+        float[] results = new float[size];
+
+        int offset = 0;
+        for (LabeledPositions part : parts) {
+            System.arraycopy(part.positions, 0, positions, offset, part.size());
+            System.arraycopy(part.results, 0, results, offset, part.size());
+            offset += part.size();
+        }
+        return new LabeledPositions(positions, results);
+    }
+}
@@ -0,0 +1,130 @@
+package info.jayharris.ninemensmorris.tuning;
+
+import info.jayharris.ninemensmorris.Board;
+import info.jayharris.ninemensmorris.Piece;
+import info.jayharris.ninemensmorris.PositionIndex;
+import info.jayharris.ninemensmorris.StalemateChecker;
+import info.jayharris.ninemensmorris.minimax.MinimaxState;
+import info.jayharris.ninemensmorris.minimax.MoveGenerator;
+import info.jayharris.ninemensmorris.minimax.PrincipalVariationSearch;
+import info.jayharris.ninemensmorris.minimax.RandomPlayout;
+import info.jayharris.ninemensmorris.minimax.SearchBudget;
+import info.jayharris.ninemensmorris.minimax.SearchState;
+import info.jayharris.ninemensmorris.minimax.TranspositionTable;
+import info.jayharris.ninemensmorris.player.BasePlayer;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Plays games between two copies of a shallow search, in parallel, and labels
+ * every position in them with how the game turned out.
+ *
+ * Each game starts with a few random moves, so that the games differ from each
+ * other, and then both players search to a fixed depth. A game that repeats a
+ * position, or goes on for {@link #MAX_PLIES} plies, is a draw.
+ */
+public class SelfPlay {
+
+    public static final int MAX_PLIES = 200;
+
+    private static final int TABLE_MEGABYTES = 1;
+
+    private final int depth;
+    private final int randomPlies;
+    private final Function<Piece, ToDoubleFunction<MinimaxState>> heuristics;
+    private final ThreadLocal<TranspositionTable> tables =
+            ThreadLocal.withInitial(() -> TranspositionTable.create(TABLE_MEGABYTES));
+
+    /**
+     * Constructs a self-play generator.
+     *
+     * @param depth the depth each move is searched to
+     * @param randomPlies the number of random plies at the start of each game
+     * @param heuristics makes the heuristic function for a player
+     */
+    public SelfPlay(int depth, int randomPlies, Function<Piece, ToDoubleFunction<MinimaxState>> heuristics) {
+        checkArgument(depth > 0 && depth <= TranspositionTable.MAX_DEPTH,
+                "Depth must be between 1 and %s.", TranspositionTable.MAX_DEPTH);
+        checkArgument(randomPlies >= 0, "The number of random plies can't be negative.");
+
+        this.depth = depth;
+        this.randomPlies = randomPlies;
+        this.heuristics = heuristics;
+    }
+
+    /**
+     * Plays games.
+     *
+     * @param games the number of games
+     * @param seed the seed for the random moves; the same seed plays the same games
+     * @return the positions from every game
+     */
+    public LabeledPositions play(int games, long seed) {
+        SplittableRandom root = new SplittableRandom(seed);
+        List<SplittableRandom> randoms = IntStream.range(0, games)
+                .mapToObj(i -> root.split())
+                .collect(Collectors.toList());
+
+        List<LabeledPositions> played = randoms.parallelStream()
+                .map(this::game)
+                .collect(Collectors.toList());
+        return LabeledPositions.concat(played);
+    }
+
+    private LabeledPositions game(SplittableRandom random) {
+        SearchState state = SearchState.create(MinimaxState.create(
+                new Board(), BasePlayer.FIRST_PLAYER, BasePlayer.STARTING_PIECES, StalemateChecker.create()));
+        RandomPlayout playout = new RandomPlayout(random);
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+
+        long[] positions = new long[MAX_PLIES];
+        Piece[] toMove = new Piece[MAX_PLIES];
+        Piece winner = null;
+
+        int ply = 0;
+        for (; ply < MAX_PLIES && !state.isStalemate(); ++ply) {
+            Piece player = state.getToMove();
+            Board board = state.getBoard();
+            int mine = board.getOccupancy(player), theirs = board.getOccupancy(player.opposite());
+
+            if (state.generate(moves, 0) == 0) {
+                winner = player.opposite();
+                break;
+            }
+            positions[ply] = PositionIndex.pack(mine, theirs);
+            toMove[ply] = player;
+
+            int move = ply < randomPlies
+                    ? playout.randomMove(mine, theirs, state.getPlayerPieces())
+                    : search(state);
+            state.make(move);
+        }
+
+        float[] results = new float[ply];
+        for (int i = 0; i < ply; ++i) {
+            results[i] = winner == null ? LabeledPositions.DRAW
+                    : winner == toMove[i] ? LabeledPositions.WIN : LabeledPositions.LOSS;
+        }
+        return LabeledPositions.of(Arrays.copyOf(positions, ply), results);
+    }
+
+    private int search(SearchState state) {
+        Piece player = state.getToMove();
+        TranspositionTable table = tables.get();
+        table.clear();
+
+        PrincipalVariationSearch search = new PrincipalVariationSearch(heuristics.apply(player), player, table,
+                SearchBudget.UNLIMITED, depth);
+        return search.perform(MinimaxState.create(
+                Board.copy(state.getBoard()), player, state.getPlayerPieces(), StalemateChecker.create()))
+                .getPackedMove();
+    }
+}
@@ -0,0 +1,235 @@
+package info.jayharris.ninemensmorris.tuning;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import info.jayharris.ninemensmorris.Piece;
+import info.jayharris.ninemensmorris.PositionIndex;
+import info.jayharris.ninemensmorris.minimax.WeightedFeatureHeuristicFunction;
+import info.jayharris.ninemensmorris.minimax.feature.Feature;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Fits the weights of a {@link WeightedFeatureHeuristicFunction} to the results
+ * of games, "Texel" style.
+ *
+ * A position's score is the weighted sum of the differences between the
+ * player to move's features and their opponent's. The tuner minimizes the
+ * logistic loss between the sigmoid of that score and the position's result,
+ * over every position at once. It does this by gradient descent with Adam step
+ * sizes. The features of every position are worked out once, up front, and
+ * each gradient is summed over chunks of positions in parallel.
+ *
+ * There's no scaling constant to fit as well, as a Texel tuner for chess has.
+ * The weights are free to take any scale, so the constant would be redundant.
+ */
+public class TexelTuner {
+
+    /**
+     * the weights to start from without a weights file
+     */
+    public static final Map<String, Double> INITIAL_WEIGHTS = ImmutableMap.of(
+            "pieces", 1.0,
+            "mills", 0.5,
+            "open_twos", 0.25,
+            "mobility", 0.1);
+
+    /**
+     * the number of random plies at the start of each self-play game
+     */
+    private static final int RANDOM_PLIES = 8;
+
+    private static final int CHUNK = 4096;
+
+    private static final double BETA1 = 0.9, BETA2 = 0.999, EPSILON = 1e-8;
+
+    private final List<String> names;
+    private final int size;
+
+    /**
+     * for each position, the difference in each feature, in the order of {@code names}
+     */
+    private final float[] values;
+    private final float[] results;
+
+    public TexelTuner(LabeledPositions positions) {
+        this(positions, ImmutableList.copyOf(WeightedFeatureHeuristicFunction.FEATURES.keySet()));
+    }
+
+    /**
+     * Constructs a tuner.
+     *
+     * @param positions the positions to fit the weights to
+     * @param names the features to fit, from {@link WeightedFeatureHeuristicFunction#FEATURES}
+     */
+    public TexelTuner(LabeledPositions positions, List<String> names) {
+        checkArgument(WeightedFeatureHeuristicFunction.FEATURES.keySet().containsAll(names),
+                "Every name must be a feature.");
+
+        this.names = ImmutableList.copyOf(names);
+        this.size = positions.size();
+        this.values = new float[size * names.size()];
+        this.results = new float[size];
+
+        // A feature computed from the masks doesn't depend on its own piece.
+        Feature[] features = names.stream()
+                .map(name -> WeightedFeatureHeuristicFunction.FEATURES.get(name).apply(Piece.BLACK))
+                .toArray(Feature[]::new);
+
+        IntStream.range(0, size).parallel().forEach(i -> {
+            long position = positions.getPosition(i);
+            int mine = PositionIndex.first(position), theirs = PositionIndex.second(position);
+            for (int f = 0; f < features.length; ++f) {
+                values[i * features.length + f] =
+                        (float) (features[f].apply(mine, theirs) - features[f].apply(theirs, mine));
+            }
+            results[i] = positions.getResult(i);
+        });
+    }
+
+    /**
+     * Fits the weights.
+     *
+     * @param initial the weights to start from; features that aren't in it start at 0
+     * @param iterations the number of gradient steps
+     * @param learningRate the Adam step size
+     * @return the fitted weight of each feature
+     */
+    public Map<String, Double> tune(Map<String, Double> initial, int iterations, double learningRate) {
+        checkArgument(size > 0, "There are no positions to fit.");
+        checkArgument(iterations >= 0, "The number of iterations can't be negative.");
+
+        double[] w = toArray(initial);
+        double[] m = new double[w.length], v = new double[w.length];
+
+        for (int t = 1; t <= iterations; ++t) {
+            double[] gradient = lossAndGradient(w);
+            for (int f = 0; f < w.length; ++f) {
+                double g = gradient[f + 1];
+                m[f] = BETA1 * m[f] + (1 - BETA1) * g;
+                v[f] = BETA2 * v[f] + (1 - BETA2) * g * g;
+
+                double mHat = m[f] / (1 - Math.pow(BETA1, t)), vHat = v[f] / (1 - Math.pow(BETA2, t));
+                w[f] -= learningRate * mHat / (Math.sqrt(vHat) + EPSILON);
+            }
+        }
+        return toMap(w);
+    }
+
+    /**
+     * Gets the mean logistic loss of a set of weights.
+     *
+     * @param weights the weights; features that aren't in it count as 0
+     * @return the loss
+     */
+    public double loss(Map<String, Double> weights) {
+        return lossAndGradient(toArray(weights))[0];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * the mean loss at index 0, then the mean gradient of each weight
+     */
+    private double[] lossAndGradient(double[] w) {
+        int chunks = (size + CHUNK - 1) / CHUNK;
+        double[] sum = IntStream.range(0, chunks).parallel()
+                .mapToObj(c -> chunk(w, c * CHUNK, Math.min(size, (c + 1) * CHUNK)))
+                .reduce(new double[w.length + 1], TexelTuner::add);
+
+        for (int i = 0; i < sum.length; ++i) {
+            sum[i] /= size;
+        }
+        return sum;
+    }
+
+    private double[] chunk(double[] w, int from, int to) {
+        int k = w.length;
+        double[] sum = new double[k + 1];
+        for (int i = from; i < to; ++i) {
+            double s = 0;
+            for (int f = 0; f < k; ++f) {
+                s += w[f] * values[i * k + f];
+            }
+
+            // log(1 + e^s) - y * s, which is the logistic loss of sigmoid(s)
+            double y = results[i];
+            sum[0] += Math.max(s, 0) + Math.log1p(Math.exp(-Math.abs(s))) - y * s;
+
+            double error = 1 / (1 + Math.exp(-s)) - y;
+            for (int f = 0; f < k; ++f) {
+                sum[f + 1] += error * values[i * k + f];
+            }
+        }
+        return sum;
+    }
+
+    private static double[] add(double[] a, double[] b) {
+        double[] sum = new double[a.length];
+        for (int i = 0; i < a.length; ++i) {
+            sum[i] = a[i] + b[i];
+        }
+        return sum;
+    }
+
+    private double[] toArray(Map<String, Double> weights) {
+        return names.stream().mapToDouble(name -> weights.getOrDefault(name, 0.0)).toArray();
+    }
+
+    private Map<String, Double> toMap(double[] w) {
+        Map<String, Double> weights = new LinkedHashMap<>();
+        for (int f = 0; f < w.length; ++f) {
+            weights.put(names.get(f), w[f]);
+        }
+        return weights;
+    }
+
+    /**
+     * Plays games against itself, fits the weights to them, and writes them.
+     *
+     * If the weights file already exists, the games are played with its weights
+     * and the fit starts from them, so running the tuner again refines them.
+     *
+     * @param args the weights file (default "weights.properties"), the number of
+     *             games (default 1000), the depth to search each move to (default
+     *             2), and the number of gradient steps (default 1000)
+     * @throws IOException if the file can't be read or written
+     */
+    public static void main(String... args) throws IOException {
+        Path path = Paths.get(args.length > 0 ? args[0] : "weights.properties");
+        int games = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int depth = args.length > 2 ? Integer.parseInt(args[2]) : 2;
+        int iterations = args.length > 3 ? Integer.parseInt(args[3]) : 1000;
+
+        Map<String, Double> initial = Files.exists(path)
+                ? WeightedFeatureHeuristicFunction.readWeights(path)
+                : INITIAL_WEIGHTS;
+
+        long start = System.nanoTime();
+        LabeledPositions positions = new SelfPlay(depth, RANDOM_PLIES,
+                piece -> WeightedFeatureHeuristicFunction.fromNames(piece, initial))
+                .play(games, System.nanoTime());
+        System.out.printf("Played %d games, %d positions, in %.1f s.%n",
+                games, positions.size(), (System.nanoTime() - start) / 1e9);
+
+        TexelTuner tuner = new TexelTuner(positions);
+        start = System.nanoTime();
+        Map<String, Double> tuned = tuner.tune(initial, iterations, 0.01);
+        System.out.printf("Loss %.5f -> %.5f in %.1f s: %s%n",
+                tuner.loss(initial), tuner.loss(tuned), (System.nanoTime() - start) / 1e9, tuned);
+
+        WeightedFeatureHeuristicFunction.writeWeights(path, tuned,
+                String.format("tuned on %d positions from %d games", positions.size(), games));
+    }
+}
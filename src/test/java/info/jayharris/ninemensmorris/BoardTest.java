@@ -102,4 +102,145 @@ class BoardTest {
             assertThat(b1.equals(b2)).isFalse();
         }
     }
-}
\ No newline at end of file
+
+    @Nested
+    class Occupancy {
+
+        Board board = BoardBuilder.create()
+                .withPiece("a7", Piece.WHITE)
+                .withPiece("d7", Piece.WHITE)
+                .withPiece("g7", Piece.WHITE)
+                .withPiece("b6", Piece.BLACK)
+                .withPiece("d6", Piece.BLACK)
+                .build();
+
+        @Test
+        @DisplayName("it tracks each piece in its own mask")
+        void testOccupancy() {
+            assertThat(board.getOccupancy(Piece.WHITE)).isEqualTo(0b111);
+            assertThat(board.getOccupancy(Piece.BLACK)).isEqualTo(0b11000);
+            assertThat(board.getUnoccupied()).isEqualTo(Board.ALL_POINTS & ~0b11111);
+            assertThat(board.count(Piece.WHITE)).isEqualTo(3);
+            assertThat(board.count(Piece.BLACK)).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("it updates the masks when a point changes")
+        void testSetPiece() {
+            board.getPoint("a7").setPiece(null);
+            board.getPoint("d6").setPiece(Piece.WHITE);
+
+            assertThat(board.getOccupancy(Piece.WHITE)).isEqualTo(0b10110);
+            assertThat(board.getOccupancy(Piece.BLACK)).isEqualTo(0b1000);
+            assertThat(board.getPoint("a7").isUnoccupied()).isTrue();
+            assertThat(board.getPoint("d6").getPiece()).isEqualTo(Piece.WHITE);
+        }
+
+        @Test
+        @DisplayName("it tests for complete mills")
+        void testIsCompleteMill() {
+            assertThat(board.isCompleteMill(board.getPoint("d7"))).isTrue();
+            assertThat(board.isCompleteMill(board.getPoint("d6"))).isFalse();
+            assertThat(board.isCompleteMill(board.getPoint("a1"))).isFalse();
+        }
+    }
+
+    @Nested
+    class Key {
+
+        @Test
+        @DisplayName("the key doesn't depend on the order the pieces were placed in")
+        void testOrderIndependent() {
+            Board b1 = BoardBuilder.create()
+                    .withPiece("a7", Piece.WHITE)
+                    .withPiece("d6", Piece.BLACK)
+                    .withPiece("c5", Piece.BLACK)
+                    .build();
+            Board b2 = BoardBuilder.create()
+                    .withPiece("c5", Piece.BLACK)
+                    .withPiece("a7", Piece.WHITE)
+                    .withPiece("d6", Piece.BLACK)
+                    .build();
+
+            assertThat(b1.getKey()).isEqualTo(b2.getKey());
+            assertThat(Board.copy(b1).getKey()).isEqualTo(b1.getKey());
+        }
+
+        @Test
+        @DisplayName("the key is updated when pieces move")
+        void testIncremental() {
+            Board board = BoardBuilder.create()
+                    .withPiece("a7", Piece.WHITE)
+                    .withPiece("d6", Piece.BLACK)
+                    .build();
+            long key = board.getKey();
+
+            board.getPoint("a7").setPiece(null);
+            board.getPoint("d7").setPiece(Piece.WHITE);
+            assertThat(board.getKey()).isNotEqualTo(key);
+
+            board.getPoint("d7").setPiece(null);
+            board.getPoint("a7").setPiece(Piece.WHITE);
+            assertThat(board.getKey()).isEqualTo(key);
+
+            board.getPoint("a7").setPiece(null);
+            board.getPoint("d6").setPiece(null);
+            assertThat(board.getKey()).isZero();
+        }
+    }
+
+    @Nested
+    class Counts {
+
+        @Test
+        @DisplayName("it counts mills, open twos and mobility")
+        void testCounts() {
+            Board board = BoardBuilder.create()
+                    .withPiece("a7", Piece.WHITE)
+                    .withPiece("d7", Piece.WHITE)
+                    .withPiece("g7", Piece.WHITE)
+                    .withPiece("a4", Piece.WHITE)
+                    .withPiece("d6", Piece.BLACK)
+                    .withPiece("f6", Piece.BLACK)
+                    .withPiece("g4", Piece.BLACK)
+                    .build();
+
+            assertThat(board.countMills(Piece.WHITE)).isEqualTo(1);
+            assertThat(board.countOpenTwos(Piece.WHITE)).isEqualTo(1);
+            // a4-b4, a4-a1
+            assertThat(board.getMobility(Piece.WHITE)).isEqualTo(2);
+
+            assertThat(board.countMills(Piece.BLACK)).isZero();
+            assertThat(board.countOpenTwos(Piece.BLACK)).isEqualTo(1);
+            // d6-d5, d6-b6, f6-f4, g4-f4, g4-g1
+            assertThat(board.getMobility(Piece.BLACK)).isEqualTo(5);
+        }
+
+        @Test
+        @DisplayName("the counts are updated when pieces move")
+        void testIncremental() {
+            Board board = BoardBuilder.create()
+                    .withPiece("a7", Piece.WHITE)
+                    .withPiece("d7", Piece.WHITE)
+                    .withPiece("d6", Piece.BLACK)
+                    .build();
+            assertThat(board.countOpenTwos(Piece.WHITE)).isEqualTo(1);
+
+            board.getPoint("g7").setPiece(Piece.WHITE);
+            assertThat(board.countMills(Piece.WHITE)).isEqualTo(1);
+            assertThat(board.countOpenTwos(Piece.WHITE)).isZero();
+
+            board.getPoint("g7").setPiece(Piece.BLACK);
+            assertThat(board.countMills(Piece.WHITE)).isZero();
+            assertThat(board.countOpenTwos(Piece.WHITE)).isZero();
+
+            board.getPoint("g7").setPiece(null);
+            board.getPoint("a7").setPiece(null);
+            board.getPoint("d7").setPiece(null);
+            board.getPoint("d6").setPiece(null);
+            assertThat(board.getMobility(Piece.WHITE)).isZero();
+            assertThat(board.getMobility(Piece.BLACK)).isZero();
+            assertThat(Board.copy(board).countOpenTwos(Piece.WHITE)).isZero();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package info.jayharris.ninemensmorris;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CoordinateTest {
+
+    @Test
+    @DisplayName("coordinates are indexed in pretty-printer order")
+    void testIndex() {
+        IntStream.range(0, Coordinate.NUM_POINTS).forEach(i -> {
+            Coordinate coordinate = Coordinate.get(i);
+
+            assertThat(coordinate.getIndex()).isEqualTo(i);
+            assertThat(coordinate.pretty()).isEqualTo(Coordinate.ALGEBRAIC_NOTATIONS_FOR_COORDINATES.get(i));
+        });
+    }
+
+    @Test
+    @DisplayName("neighbor tables agree with each other")
+    void testNeighbors() {
+        assertThat(Coordinate.NEIGHBORS[Coordinate.get("a7").getIndex()])
+                .containsExactlyInAnyOrder(Coordinate.get("d7").getIndex(), Coordinate.get("a4").getIndex());
+        assertThat(Coordinate.NEIGHBORS[Coordinate.get("d6").getIndex()])
+                .containsExactlyInAnyOrder(
+                        Coordinate.get("d7").getIndex(),
+                        Coordinate.get("b6").getIndex(),
+                        Coordinate.get("f6").getIndex(),
+                        Coordinate.get("d5").getIndex());
+
+        IntStream.range(0, Coordinate.NUM_POINTS).forEach(i -> {
+            assertThat(Integer.bitCount(Coordinate.NEIGHBOR_MASKS[i])).isEqualTo(Coordinate.NEIGHBORS[i].length);
+
+            for (int neighbor : Coordinate.NEIGHBORS[i]) {
+                assertThat(Coordinate.NEIGHBOR_MASKS[i] & (1 << neighbor)).isNotZero();
+                assertThat(Coordinate.NEIGHBOR_MASKS[neighbor] & (1 << i)).isNotZero();
+            }
+        });
+    }
+
+    @Test
+    @DisplayName("every point is in exactly two mills")
+    void testMills() {
+        assertThat(Coordinate.MILLS).hasSize(16);
+
+        IntStream.range(0, Coordinate.NUM_POINTS).forEach(i -> {
+            assertThat(Coordinate.MILLS_AT[i]).hasSize(2);
+
+            for (int mill : Coordinate.MILLS_AT[i]) {
+                assertThat(Integer.bitCount(mill)).isEqualTo(3);
+                assertThat(mill & (1 << i)).isNotZero();
+            }
+        });
+    }
+}
@@ -0,0 +1,92 @@
+package info.jayharris.ninemensmorris;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PositionIndexTest {
+
+    @Test
+    @DisplayName("it ranks sets of points in the order of their masks")
+    void testRankSubset() {
+        int rank = 0;
+        for (int mask = 0b111; mask < 1 << 24; mask = PositionIndex.nextSubset(mask), ++rank) {
+            assertThat(PositionIndex.rankSubset(mask)).isEqualTo(rank);
+            assertThat(PositionIndex.unrankSubset(rank, 3)).isEqualTo(mask);
+        }
+        assertThat(rank).isEqualTo(PositionIndex.binomial(24, 3));
+    }
+
+    @Test
+    @DisplayName("it numbers every position exactly once, and unranks each number back to its position")
+    void testRank() {
+        PositionIndex index = PositionIndex.of(3, 2);
+        assertThat(index.size()).isEqualTo(2024L * 210);
+
+        boolean[] seen = new boolean[(int) index.size()];
+        for (int first = 0b111; first < 1 << 24; first = PositionIndex.nextSubset(first)) {
+            for (int second = 0b11; second < 1 << 24; second = PositionIndex.nextSubset(second)) {
+                if ((first & second) == 0) {
+                    int rank = (int) index.rank(first, second);
+                    assertThat(seen[rank]).isFalse();
+                    seen[rank] = true;
+
+                    assertThat(index.unrank(rank)).isEqualTo(PositionIndex.pack(first, second));
+                }
+            }
+        }
+        for (boolean s : seen) {
+            assertThat(s).isTrue();
+        }
+    }
+
+    @Test
+    @DisplayName("it ranks boards with white first")
+    void testRankBoard() throws Exception {
+        Board board = BoardBuilder.create()
+                .withPiece("a7", Piece.WHITE)
+                .withPiece("g1", Piece.WHITE)
+                .withPiece("d5", Piece.BLACK)
+                .build();
+
+        long rank = PositionIndex.of(2, 1).rank(board);
+        long position = PositionIndex.of(2, 1).unrank(rank);
+        assertThat(PositionIndex.first(position)).isEqualTo(board.getOccupancy(Piece.WHITE));
+        assertThat(PositionIndex.second(position)).isEqualTo(board.getOccupancy(Piece.BLACK));
+    }
+
+    @Test
+    @DisplayName("it streams positions in rank order, in parallel too")
+    void testPositions() {
+        for (int first = 0; first <= 3; ++first) {
+            for (int second = 0; second <= 3; ++second) {
+                PositionIndex index = PositionIndex.of(first, second);
+                long[] positions = index.positions().toArray();
+
+                assertThat(positions).hasSize((int) index.size());
+                for (int rank = 0; rank < positions.length; ++rank) {
+                    assertThat(index.unrank(rank)).isEqualTo(positions[rank]);
+                }
+
+                assertThat(index.positions().parallel().toArray()).isEqualTo(positions);
+
+                long from = index.size() / 3, to = index.size() / 2;
+                assertThat(index.positions(from, to).toArray())
+                        .isEqualTo(Arrays.copyOfRange(positions, (int) from, (int) to));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("it ranks the biggest subspaces in a long")
+    void testSize() {
+        PositionIndex index = PositionIndex.of(9, 9);
+        assertThat(index.size()).isEqualTo(1_307_504L * 5005);
+
+        long last = index.unrank(index.size() - 1);
+        assertThat(index.rank(PositionIndex.first(last), PositionIndex.second(last))).isEqualTo(index.size() - 1);
+    }
+}
@@ -0,0 +1,49 @@
+package info.jayharris.ninemensmorris;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReducedPositionIndexTest {
+
+    private final ReducedPositionIndex index = ReducedPositionIndex.of(3, 2);
+
+    @Test
+    @DisplayName("it gives symmetric positions the same rank, and others different ranks")
+    void testRank() {
+        long[] canonical = new long[(int) index.size()];
+        Arrays.fill(canonical, -1);
+
+        PositionIndex.of(3, 2).positions().forEach(position -> {
+            int first = PositionIndex.first(position), second = PositionIndex.second(position);
+            long form = Symmetry.position(Symmetry.canonicalize(first, second));
+            int rank = (int) index.rank(first, second);
+
+            if (canonical[rank] == -1) {
+                canonical[rank] = form;
+            }
+            assertThat(canonical[rank]).isEqualTo(form);
+            assertThat(index.unrank(rank)).isEqualTo(form);
+            assertThat(index.isCanonical(rank)).isTrue();
+        });
+
+        long used = Arrays.stream(canonical).filter(form -> form != -1).count();
+        assertThat(index.positions().count()).isEqualTo(used);
+        assertThat(index.positions().parallel().count()).isEqualTo(used);
+    }
+
+    @Test
+    @DisplayName("it needs much less room than the full index")
+    void testSize() {
+        assertThat(index.size() * 10).isLessThan(PositionIndex.of(3, 2).size());
+    }
+
+    @Test
+    @DisplayName("it makes each index once")
+    void testOf() {
+        assertThat(ReducedPositionIndex.of(3, 2)).isSameAs(index);
+    }
+}
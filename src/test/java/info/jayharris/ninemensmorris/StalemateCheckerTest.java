@@ -46,5 +46,19 @@ class StalemateCheckerTest {
             stalemateChecker.accept(board);
             assertThat(stalemateChecker.isStalemate()).isTrue();
         }
+
+        @Test
+        @DisplayName("it forgets the boards from before a capture")
+        public void capture() throws Exception {
+            stalemateChecker.accept(board);
+
+            board.getPoint("g1").setPiece(null);
+            stalemateChecker.accept(board);
+            assertThat(stalemateChecker.getHistory()).containsExactly(board.getKey());
+
+            board.getPoint("g1").setPiece(Piece.WHITE);
+            stalemateChecker.accept(board);
+            assertThat(stalemateChecker.isStalemate()).isFalse();
+        }
     }
 }
\ No newline at end of file
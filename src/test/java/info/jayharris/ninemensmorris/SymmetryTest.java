@@ -0,0 +1,87 @@
+package info.jayharris.ninemensmorris;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SymmetryTest {
+
+    @Test
+    @DisplayName("it maps mills to mills and neighbors to neighbors")
+    void testPermutations() {
+        Set<Integer> mills = Arrays.stream(Coordinate.MILLS).boxed().collect(Collectors.toSet());
+        Set<String> permutations = IntStream.range(0, Symmetry.COUNT)
+                .mapToObj(s -> Arrays.toString(Symmetry.getPermutation(s)))
+                .collect(Collectors.toSet());
+        assertThat(permutations).hasSize(Symmetry.COUNT);
+
+        for (int s = 0; s < Symmetry.COUNT; ++s) {
+            for (int mill : Coordinate.MILLS) {
+                assertThat(mills).contains(Symmetry.apply(s, mill));
+            }
+            for (int p = 0; p < Coordinate.NUM_POINTS; ++p) {
+                assertThat(Symmetry.apply(s, Coordinate.NEIGHBOR_MASKS[p]))
+                        .isEqualTo(Coordinate.NEIGHBOR_MASKS[Symmetry.applyToIndex(s, p)]);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("it rotates, reflects and swaps the inner and outer squares")
+    void testApply() {
+        Coordinate a7 = Coordinate.get("a7");
+
+        assertThat(Symmetry.apply(Symmetry.IDENTITY, a7)).isEqualTo(Coordinate.get("a7").getIndex());
+        assertThat(Symmetry.apply(1, a7)).isEqualTo(Coordinate.get("g7").getIndex());
+        assertThat(Symmetry.apply(4, a7)).isEqualTo(Coordinate.get("g7").getIndex());
+        assertThat(Symmetry.apply(4, Coordinate.get("d7"))).isEqualTo(Coordinate.get("d7").getIndex());
+        assertThat(Symmetry.apply(8, a7)).isEqualTo(Coordinate.get("c5").getIndex());
+        assertThat(Symmetry.apply(8, Coordinate.get("b4"))).isEqualTo(Coordinate.get("b4").getIndex());
+    }
+
+    @Test
+    @DisplayName("it hands out copies of its permutations")
+    void testGetPermutation() {
+        Symmetry.getPermutation(1)[0] = -1;
+
+        assertThat(Symmetry.applyToIndex(1, 0)).isEqualTo(Coordinate.get("g7").getIndex());
+    }
+
+    @Test
+    @DisplayName("it undoes every symmetry")
+    void testInverse() {
+        for (int s = 0; s < Symmetry.COUNT; ++s) {
+            for (int p = 0; p < Coordinate.NUM_POINTS; ++p) {
+                assertThat(Symmetry.applyToIndex(Symmetry.inverse(s), Symmetry.applyToIndex(s, p))).isEqualTo(p);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("it canonicalizes every symmetric position to the same form, and says how")
+    void testCanonicalize() throws Exception {
+        Board board = BoardBuilder.create()
+                .withPiece("g1", Piece.WHITE)
+                .withPiece("e4", Piece.WHITE)
+                .withPiece("d2", Piece.BLACK)
+                .build();
+        int white = board.getOccupancy(Piece.WHITE), black = board.getOccupancy(Piece.BLACK);
+
+        long canonical = Symmetry.canonicalize(board);
+        long position = Symmetry.position(canonical);
+        int symmetry = Symmetry.symmetry(canonical);
+        assertThat(position).isEqualTo(PositionIndex.pack(Symmetry.apply(symmetry, white), Symmetry.apply(symmetry, black)));
+
+        for (int s = 0; s < Symmetry.COUNT; ++s) {
+            long image = Symmetry.canonicalize(Symmetry.apply(s, white), Symmetry.apply(s, black));
+            assertThat(Symmetry.position(image)).isEqualTo(position);
+            assertThat(PositionIndex.first(position)).isLessThanOrEqualTo(Symmetry.apply(s, white));
+        }
+    }
+}
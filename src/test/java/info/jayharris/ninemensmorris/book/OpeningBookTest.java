@@ -0,0 +1,90 @@
+package info.jayharris.ninemensmorris.book;
+
+import info.jayharris.ninemensmorris.Board;
+import info.jayharris.ninemensmorris.BoardBuilder;
+import info.jayharris.ninemensmorris.Coordinate;
+import info.jayharris.ninemensmorris.Piece;
+import info.jayharris.ninemensmorris.StalemateChecker;
+import info.jayharris.ninemensmorris.Symmetry;
+import info.jayharris.ninemensmorris.minimax.MinimaxAction;
+import info.jayharris.ninemensmorris.minimax.MinimaxState;
+import info.jayharris.ninemensmorris.minimax.PackedMove;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OpeningBookTest {
+
+    @TempDir
+    static Path directory;
+
+    private static OpeningBook book;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        Path path = directory.resolve("book.bin");
+
+        new OpeningBookBuilder(3, 2).build(path);
+        book = OpeningBook.open(path);
+    }
+
+    @Test
+    @DisplayName("it stores one position for each class of symmetric positions")
+    void testSize() {
+        // the start, 4 classes after one placement, and 46 after two
+        assertThat(book.size()).isEqualTo(1 + 4 + 46);
+    }
+
+    @Test
+    @DisplayName("it has a legal move for the start of the game")
+    void testStart() {
+        MinimaxState state = MinimaxState.create(new Board(), Piece.BLACK, 9, StalemateChecker.create());
+
+        MinimaxAction action = book.bestMove(state);
+        assertThat(state.actions()).contains(action);
+        assertThat(book.score(state)).isNotNaN();
+    }
+
+    @Test
+    @DisplayName("it finds symmetric positions, and moves from them")
+    void testSymmetric() throws Exception {
+        Board board = BoardBuilder.create().withPiece("a7", Piece.BLACK).withPiece("d6", Piece.WHITE).build();
+        Board image = BoardBuilder.create().withPiece("c3", Piece.BLACK).withPiece("d2", Piece.WHITE).build();
+        MinimaxState state = MinimaxState.create(board, Piece.BLACK, 8, StalemateChecker.create());
+        MinimaxState imageState = MinimaxState.create(image, Piece.BLACK, 8, StalemateChecker.create());
+
+        assertThat(book.score(imageState)).isEqualTo(book.score(state));
+        assertThat(imageState.actions()).contains(book.bestMove(imageState));
+    }
+
+    @Test
+    @DisplayName("it doesn't know positions past the end of the book")
+    void testAbsent() throws Exception {
+        Board board = BoardBuilder.create()
+                .withPiece("a7", Piece.BLACK)
+                .withPiece("d7", Piece.WHITE)
+                .withPiece("g7", Piece.BLACK)
+                .build();
+        MinimaxState state = MinimaxState.create(board, Piece.WHITE, 8, StalemateChecker.create());
+
+        assertThat(book.bestMove(state)).isNull();
+        assertThat(book.score(state)).isNaN();
+    }
+
+    @Test
+    @DisplayName("it maps moves back from the canonical form")
+    void testTransform() {
+        int move = PackedMove.of(Coordinate.get("a7").getIndex(), Coordinate.get("d7").getIndex(),
+                Coordinate.get("b4").getIndex());
+
+        for (int s = 0; s < Symmetry.COUNT; ++s) {
+            assertThat(OpeningBook.transform(OpeningBook.transform(move, s), Symmetry.inverse(s))).isEqualTo(move);
+        }
+        assertThat(OpeningBook.transform(PackedMove.placePiece(0), 1)).isEqualTo(PackedMove.placePiece(2));
+    }
+}
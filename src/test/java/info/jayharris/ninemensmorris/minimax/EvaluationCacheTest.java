@@ -0,0 +1,138 @@
+package info.jayharris.ninemensmorris.minimax;
+
+import info.jayharris.ninemensmorris.Board;
+import info.jayharris.ninemensmorris.BoardBuilder;
+import info.jayharris.ninemensmorris.Piece;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToDoubleFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class EvaluationCacheTest {
+
+    private final AtomicInteger evaluations = new AtomicInteger();
+    private final ToDoubleFunction<MinimaxState> mobility = state -> {
+        evaluations.incrementAndGet();
+        return new ComparativeMobilityHeuristicFunction(Piece.BLACK).applyAsDouble(state);
+    };
+
+    private MinimaxState state;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Board board = BoardBuilder.create()
+                .withPiece("d7", Piece.BLACK)
+                .withPiece("d5", Piece.BLACK)
+                .withPiece("e5", Piece.WHITE)
+                .withPiece("b4", Piece.BLACK)
+                .withPiece("c4", Piece.WHITE)
+                .withPiece("e3", Piece.WHITE)
+                .build();
+        state = MinimaxStateBuilder.create()
+                .withBoard(board)
+                .withPlayerPieces(6)
+                .withToMove(Piece.BLACK)
+                .build();
+    }
+
+    @Test
+    @DisplayName("it evaluates a state once")
+    void testHit() {
+        EvaluationCache cache = EvaluationCache.create(mobility, 1024);
+
+        assertThat(cache.applyAsDouble(state)).isEqualTo(8.0 / 5.0);
+        assertThat(cache.applyAsDouble(state)).isEqualTo(8.0 / 5.0);
+        assertThat(evaluations.get()).isEqualTo(1);
+        assertThat(cache.getHits()).isEqualTo(1);
+        assertThat(cache.getMisses()).isEqualTo(1);
+        assertThat(cache.getHitRate()).isEqualTo(0.5);
+    }
+
+    @Test
+    @DisplayName("it tells states apart by the player to move")
+    void testToMove() throws Exception {
+        MinimaxState other = MinimaxStateBuilder.create()
+                .withBoard(state.getBoard())
+                .withPlayerPieces(6)
+                .withToMove(Piece.WHITE)
+                .build();
+        EvaluationCache cache = EvaluationCache.create(mobility, 1024);
+
+        cache.applyAsDouble(state);
+        cache.applyAsDouble(other);
+        assertThat(evaluations.get()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("#clear removes every entry")
+    void testClear() {
+        EvaluationCache cache = EvaluationCache.create(mobility, 1024);
+        cache.applyAsDouble(state);
+        cache.clear();
+
+        assertThat(cache.getHitRate()).isZero();
+        cache.applyAsDouble(state);
+        assertThat(evaluations.get()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("its size is rounded down to a power of two")
+    void testCapacity() {
+        assertThat(EvaluationCache.create(mobility, 1000).capacity()).isEqualTo(512);
+        assertThatIllegalArgumentException().isThrownBy(() -> EvaluationCache.create(mobility, 0));
+    }
+
+    @Test
+    @DisplayName("threads sharing it get the same scores as without it")
+    void testThreads() throws Exception {
+        ComparativeMobilityHeuristicFunction heuristic = new ComparativeMobilityHeuristicFunction(Piece.BLACK);
+        EvaluationCache cache = EvaluationCache.create(heuristic, 64);
+
+        SearchState root = SearchState.create(state);
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int n = root.generate(moves, 0);
+
+        List<MinimaxState> states = new ArrayList<>();
+        for (int i = 0; i < n; ++i) {
+            root.make(moves[i]);
+            states.add(MinimaxStateBuilder.create()
+                    .withBoard(Board.copy(root.getBoard()))
+                    .withPlayerPieces(root.getPlayerPieces())
+                    .withToMove(root.getToMove())
+                    .build());
+            root.unmake(moves[i]);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; ++t) {
+                futures.add(executor.submit(() -> {
+                    boolean same = true;
+                    for (int i = 0; i < 10_000; ++i) {
+                        MinimaxState s = states.get(i % states.size());
+                        same &= Double.compare(cache.applyAsDouble(s), heuristic.applyAsDouble(s)) == 0;
+                    }
+                    return same;
+                }));
+            }
+            for (Future<Boolean> future : futures) {
+                assertThat(future.get()).isTrue();
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+        assertThat(cache.getHits() + cache.getMisses()).isEqualTo(40_000);
+    }
+}
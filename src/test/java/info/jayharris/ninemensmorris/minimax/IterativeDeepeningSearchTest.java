@@ -0,0 +1,76 @@
+package info.jayharris.ninemensmorris.minimax;
+
+import info.jayharris.ninemensmorris.Board;
+import info.jayharris.ninemensmorris.BoardBuilder;
+import info.jayharris.ninemensmorris.Piece;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class IterativeDeepeningSearchTest {
+
+    private final ComparativeMobilityHeuristicFunction heuristic = new ComparativeMobilityHeuristicFunction(Piece.BLACK);
+
+    private MinimaxState state;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Board board = BoardBuilder.create()
+                .withPiece("g7", Piece.WHITE)
+                .withPiece("c4", Piece.WHITE)
+                .withPiece("c3", Piece.BLACK)
+                .withPiece("d3", Piece.BLACK)
+                .build();
+        state = MinimaxStateBuilder.create()
+                .withBoard(board)
+                .withToMove(Piece.BLACK)
+                .withPlayerPieces(7)
+                .build();
+    }
+
+    @Test
+    @DisplayName("it gets the same score as a fixed-depth search")
+    void testSameScore() {
+        NegamaxSearch fixed = new NegamaxSearch(4, heuristic, Piece.BLACK, TranspositionTable.create(1));
+        fixed.perform(state);
+
+        IterativeDeepeningSearch search = new IterativeDeepeningSearch(
+                heuristic, Piece.BLACK, TranspositionTable.create(1), SearchBudget.UNLIMITED, 4);
+        MinimaxAction action = search.perform(state);
+
+        assertThat(action).isNotNull();
+        assertThat(search.getCompletedDepth()).isEqualTo(4);
+        assertThat(search.getScore()).isCloseTo(fixed.getScore(), within(1e-6));
+    }
+
+    @Test
+    @DisplayName("it stops when it runs out of nodes")
+    void testNodeBudget() {
+        IterativeDeepeningSearch search = new IterativeDeepeningSearch(
+                heuristic, Piece.BLACK, TranspositionTable.create(1), SearchBudget.ofNodes(20_000));
+        MinimaxAction action = search.perform(state);
+
+        assertThat(action).isNotNull();
+        assertThat(search.getCompletedDepth()).isBetween(1, 10);
+        assertThat(search.getNodes()).isLessThan(20_000 + 1024);
+    }
+
+    @Test
+    @DisplayName("it stops when it runs out of time")
+    void testTimeBudget() {
+        IterativeDeepeningSearch search = new IterativeDeepeningSearch(
+                heuristic, Piece.BLACK, TranspositionTable.create(1), SearchBudget.ofTime(Duration.ofMillis(50)));
+
+        long start = System.nanoTime();
+        MinimaxAction action = search.perform(state);
+
+        assertThat(action).isNotNull();
+        assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(1));
+    }
+}
@@ -0,0 +1,89 @@
+package info.jayharris.ninemensmorris.minimax;
+
+import info.jayharris.ninemensmorris.Board;
+import info.jayharris.ninemensmorris.BoardBuilder;
+import info.jayharris.ninemensmorris.Piece;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KillerHistoryMoveOrdererTest {
+
+    private final KillerHistoryMoveOrderer orderer = new KillerHistoryMoveOrderer();
+    private final int[] moves = new int[MoveGenerator.MAX_MOVES];
+
+    private SearchState state;
+    private int n;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Board board = BoardBuilder.create()
+                .withPiece("a7", Piece.BLACK)
+                .withPiece("d7", Piece.BLACK)
+                .withPiece("g4", Piece.BLACK)
+                .withPiece("b4", Piece.BLACK)
+                .withPiece("a1", Piece.WHITE)
+                .withPiece("d1", Piece.WHITE)
+                .withPiece("f2", Piece.WHITE)
+                .build();
+        state = SearchState.create(MinimaxStateBuilder.create()
+                .withBoard(board)
+                .withToMove(Piece.BLACK)
+                .build());
+        n = state.generate(moves, 0);
+    }
+
+    @Test
+    @DisplayName("it puts the hash move first, then captures, then blocks")
+    void testOrder() {
+        orderer.order(state, moves, n, 0, find("b4-c4"));
+
+        List<String> ordered = pretty();
+        assertThat(ordered.get(0)).isEqualTo("b4-c4");
+        assertThat(ordered.subList(1, 4)).containsExactlyInAnyOrder("g4-g7xa1", "g4-g7xd1", "g4-g7xf2");
+        assertThat(ordered.get(4)).isEqualTo("g4-g1");
+        assertThat(ordered).hasSize(n);
+    }
+
+    @Test
+    @DisplayName("it tries killer moves, then moves with a history of cutoffs, before other quiet moves")
+    void testKillersAndHistory() {
+        orderer.cutoff(state, find("d7-d6"), 0, 0, 2);
+        orderer.cutoff(state, find("b4-b2"), 3, 5, 4);
+
+        orderer.order(state, moves, n, 0, PackedMove.NO_MOVE);
+
+        List<String> ordered = pretty();
+        assertThat(ordered.get(4)).isEqualTo("g4-g1");
+        assertThat(ordered.get(5)).isEqualTo("d7-d6");
+        assertThat(ordered.get(6)).isEqualTo("b4-b2");
+    }
+
+    @Test
+    @DisplayName("it counts the cutoffs that come from the first move tried")
+    void testFirstMoveCutoffRate() {
+        orderer.cutoff(state, find("d7-d6"), 0, 0, 2);
+        orderer.cutoff(state, find("b4-b2"), 3, 5, 4);
+
+        assertThat(orderer.getCutoffs()).isEqualTo(2);
+        assertThat(orderer.getFirstMoveCutoffs()).isEqualTo(1);
+        assertThat(orderer.getFirstMoveCutoffRate()).isEqualTo(0.5);
+
+        orderer.clear();
+        assertThat(orderer.getFirstMoveCutoffRate()).isZero();
+    }
+
+    private int find(String pretty) {
+        return Arrays.stream(moves, 0, n).filter(move -> PackedMove.pretty(move).equals(pretty)).findFirst().getAsInt();
+    }
+
+    private List<String> pretty() {
+        return Arrays.stream(moves, 0, n).mapToObj(PackedMove::pretty).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,62 @@
+package info.jayharris.ninemensmorris.minimax;
+
+import info.jayharris.ninemensmorris.Board;
+import info.jayharris.ninemensmorris.BoardBuilder;
+import info.jayharris.ninemensmorris.Piece;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LazySmpSearchTest {
+
+    private final ComparativeMobilityHeuristicFunction heuristic = new ComparativeMobilityHeuristicFunction(Piece.BLACK);
+
+    private MinimaxState state;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Board board = BoardBuilder.create()
+                .withPiece("g7", Piece.WHITE)
+                .withPiece("c4", Piece.WHITE)
+                .withPiece("c3", Piece.BLACK)
+                .withPiece("d3", Piece.BLACK)
+                .build();
+        state = MinimaxStateBuilder.create()
+                .withBoard(board)
+                .withToMove(Piece.BLACK)
+                .withPlayerPieces(7)
+                .build();
+    }
+
+    @Test
+    @DisplayName("it searches on every thread and returns the main thread's move")
+    void testSearch() {
+        try (LazySmpSearch search = new LazySmpSearch(
+                heuristic, Piece.BLACK, TranspositionTable.create(4), SearchBudget.UNLIMITED, 4, 5)) {
+            MinimaxAction action = search.perform(state);
+
+            assertThat(state.actions()).contains(action);
+            assertThat(search.getCompletedDepth()).isEqualTo(5);
+            assertThat(search.getThreadNodes()).hasSize(4);
+            assertThat(search.getNodes()).isEqualTo(search.getThreadNodes()[0] + search.getThreadNodes()[1]
+                    + search.getThreadNodes()[2] + search.getThreadNodes()[3]);
+        }
+    }
+
+    @Test
+    @DisplayName("its helpers stop when the main thread runs out of time")
+    void testTimeBudget() {
+        try (LazySmpSearch search = new LazySmpSearch(
+                heuristic, Piece.BLACK, TranspositionTable.create(4), SearchBudget.ofTime(Duration.ofMillis(100)), 3)) {
+            long start = System.nanoTime();
+            MinimaxAction action = search.perform(state);
+
+            assertThat(action).isNotNull();
+            assertThat(System.nanoTime() - start).isLessThan(Duration.ofSeconds(2).toNanos());
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package info.jayharris.ninemensmorris.minimax;
+
+import info.jayharris.ninemensmorris.Board;
+import info.jayharris.ninemensmorris.BoardBuilder;
+import info.jayharris.ninemensmorris.Piece;
+import info.jayharris.ninemensmorris.StalemateChecker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MonteCarloTreeSearchTest {
+
+    private MinimaxState state;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Board board = BoardBuilder.create()
+                .withPiece("a7", Piece.WHITE)
+                .withPiece("d7", Piece.WHITE)
+                .withPiece("b4", Piece.WHITE)
+                .withPiece("a1", Piece.BLACK)
+                .withPiece("d1", Piece.BLACK)
+                .withPiece("f2", Piece.BLACK)
+                .build();
+        state = MinimaxStateBuilder.create()
+                .withBoard(board)
+                .withToMove(Piece.WHITE)
+                .build();
+    }
+
+    @Test
+    @DisplayName("it finds a win by closing a mill")
+    void testWin() {
+        try (MonteCarloTreeSearch search = new MonteCarloTreeSearch(SearchBudget.ofNodes(2000))) {
+            MinimaxAction action = search.perform(state);
+
+            assertThat(action.pretty()).startsWith("b4-g7x");
+            assertThat(search.getPlayouts()).isEqualTo(2000);
+            assertThat(search.getScore()).isEqualTo(1.0);
+        }
+    }
+
+    @Test
+    @DisplayName("it finds the win with a shared tree, and with a tree per thread")
+    void testParallel() {
+        for (MonteCarloTreeSearch.Parallelism parallelism : MonteCarloTreeSearch.Parallelism.values()) {
+            try (MonteCarloTreeSearch search = new MonteCarloTreeSearch(SearchBudget.ofNodes(4000), 3, parallelism)) {
+                MinimaxAction action = search.perform(state);
+
+                assertThat(action.pretty()).as(parallelism.name()).startsWith("b4-g7x");
+                assertThat(search.getPlayouts()).isGreaterThanOrEqualTo(4000);
+                assertThat(search.getVisits()).isPositive();
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("it stops when it runs out of time")
+    void testTimeBudget() {
+        MinimaxState start = MinimaxState.create(new Board(), Piece.BLACK, 9, StalemateChecker.create());
+
+        try (MonteCarloTreeSearch search = new MonteCarloTreeSearch(SearchBudget.ofTime(Duration.ofMillis(200)))) {
+            long begin = System.nanoTime();
+            MinimaxAction action = search.perform(start);
+
+            assertThat(start.actions()).contains(action);
+            assertThat(System.nanoTime() - begin).isLessThan(Duration.ofSeconds(2).toNanos());
+        }
+    }
+
+    @Test
+    @DisplayName("it returns no move when there are none")
+    void testNoMoves() throws Exception {
+        Board board = BoardBuilder.create()
+                .withPiece("a7", Piece.WHITE)
+                .withPiece("d7", Piece.BLACK)
+                .withPiece("a4", Piece.BLACK)
+                .withPiece("g7", Piece.BLACK)
+                .withPiece("b6", Piece.BLACK)
+                .build();
+        MinimaxState trapped = MinimaxStateBuilder.create()
+                .withBoard(board)
+                .withToMove(Piece.WHITE)
+                .build();
+
+        try (MonteCarloTreeSearch search = new MonteCarloTreeSearch(SearchBudget.ofNodes(100))) {
+            assertThat(search.perform(trapped)).isNull();
+            assertThat(search.getPlayouts()).isZero();
+        }
+    }
+}
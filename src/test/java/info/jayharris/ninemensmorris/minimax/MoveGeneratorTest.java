@@ -0,0 +1,133 @@
+package info.jayharris.ninemensmorris.minimax;
+
+import info.jayharris.ninemensmorris.Board;
+import info.jayharris.ninemensmorris.BoardBuilder;
+import info.jayharris.ninemensmorris.Piece;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MoveGeneratorTest {
+
+    private final int[] buffer = new int[MoveGenerator.MAX_MOVES];
+
+    @Test
+    @DisplayName("it expands a placement that completes a mill into one move per capture")
+    void testPlacePieceWithCapture() {
+        Board board = BoardBuilder.create()
+                .withPiece("a7", Piece.BLACK)
+                .withPiece("d7", Piece.BLACK)
+                .withPiece("b6", Piece.WHITE)
+                .withPiece("c4", Piece.WHITE)
+                .build();
+
+        int count = MoveGenerator.generate(board, Piece.BLACK, 7, buffer, 0);
+
+        assertThat(pretty(count)).contains("g7xb6", "g7xc4", "a1", "f2").doesNotContain("g7", "a7");
+        assertThat(count).isEqualTo(21);
+    }
+
+    @Test
+    @DisplayName("it moves pieces to neighboring points")
+    void testMovePiece() {
+        Board board = BoardBuilder.create()
+                .withPiece("a7", Piece.BLACK)
+                .withPiece("g7", Piece.BLACK)
+                .withPiece("a1", Piece.BLACK)
+                .withPiece("g1", Piece.BLACK)
+                .withPiece("d7", Piece.WHITE)
+                .withPiece("d1", Piece.WHITE)
+                .withPiece("a4", Piece.WHITE)
+                .build();
+
+        int count = MoveGenerator.generate(board, Piece.BLACK, 0, buffer, 0);
+
+        assertThat(pretty(count)).containsExactlyInAnyOrder("g7-g4", "g1-g4");
+    }
+
+    @Test
+    @DisplayName("it flies a player's pieces when they have three left")
+    void testFly() {
+        Board board = BoardBuilder.create()
+                .withPiece("a7", Piece.BLACK)
+                .withPiece("d7", Piece.BLACK)
+                .withPiece("d1", Piece.BLACK)
+                .withPiece("b6", Piece.WHITE)
+                .withPiece("c4", Piece.WHITE)
+                .withPiece("e4", Piece.WHITE)
+                .withPiece("f2", Piece.WHITE)
+                .build();
+
+        int count = MoveGenerator.generate(board, Piece.BLACK, 0, buffer, 0);
+
+        // 3 pieces * 17 empty points, but d1-g7 expands into four captures
+        assertThat(count).isEqualTo(3 * 17 + 3);
+        assertThat(pretty(count)).contains("d1-g7xb6", "d1-g7xf2", "a7-g1");
+    }
+
+    @Test
+    @DisplayName("it knows when a player can close a mill on their next move")
+    void testCanCloseMill() {
+        BoardBuilder builder = BoardBuilder.create()
+                .withPiece("a7", Piece.BLACK)
+                .withPiece("d7", Piece.BLACK)
+                .withPiece("b2", Piece.BLACK)
+                .withPiece("f2", Piece.WHITE)
+                .withPiece("c4", Piece.WHITE);
+
+        // three pieces can fly to g7
+        assertThat(MoveGenerator.canCloseMill(builder.build(), Piece.BLACK, 0)).isTrue();
+        // so can a piece being placed
+        assertThat(MoveGenerator.canCloseMill(builder.build(), Piece.BLACK, 6)).isTrue();
+
+        // d6 is next to d7, but not to g7
+        assertThat(MoveGenerator.canCloseMill(builder.withPiece("d6", Piece.BLACK).build(), Piece.BLACK, 0)).isFalse();
+        assertThat(MoveGenerator.canCloseMill(builder.withPiece("g4", Piece.BLACK).build(), Piece.BLACK, 0)).isTrue();
+        assertThat(MoveGenerator.canCloseMill(builder.build(), Piece.WHITE, 0)).isFalse();
+    }
+
+    @Test
+    @DisplayName("it doesn't allocate")
+    void testNoAllocation() {
+        Board board = BoardBuilder.create()
+                .withPiece("a7", Piece.BLACK)
+                .withPiece("d7", Piece.BLACK)
+                .withPiece("d1", Piece.BLACK)
+                .withPiece("b6", Piece.WHITE)
+                .withPiece("c4", Piece.WHITE)
+                .withPiece("e4", Piece.WHITE)
+                .withPiece("f2", Piece.WHITE)
+                .build();
+
+        Piece[] pieces = Piece.values();
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        // warm up, so we don't count anything the JIT does
+        for (int i = 0; i < 100_000; ++i) {
+            MoveGenerator.generate(board, pieces[i % 2], i % 3, buffer, 0);
+        }
+
+        long before = threads.getThreadAllocatedBytes(threadId);
+        long moves = 0;
+        for (int i = 0; i < 100_000; ++i) {
+            moves += MoveGenerator.generate(board, pieces[i % 2], i % 3, buffer, 0);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        assertThat(moves).isGreaterThan(100_000);
+        assertThat(allocated).isLessThan(1024);
+    }
+
+    private String[] pretty(int count) {
+        return Arrays.stream(buffer, 0, count)
+                .mapToObj(PackedMove::pretty)
+                .collect(Collectors.toList())
+                .toArray(new String[0]);
+    }
+}
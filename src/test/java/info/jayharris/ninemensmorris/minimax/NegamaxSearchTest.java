@@ -0,0 +1,71 @@
+package info.jayharris.ninemensmorris.minimax;
+
+import info.jayharris.ninemensmorris.Board;
+import info.jayharris.ninemensmorris.BoardBuilder;
+import info.jayharris.ninemensmorris.Piece;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class NegamaxSearchTest {
+
+    @Test
+    @DisplayName("it finds a move that wins the game")
+    void testWin() throws Exception {
+        Board board = BoardBuilder.create()
+                .withPiece("a7", Piece.BLACK)
+                .withPiece("d7", Piece.BLACK)
+                .withPiece("g4", Piece.BLACK)
+                .withPiece("b4", Piece.BLACK)
+                .withPiece("a1", Piece.WHITE)
+                .withPiece("d1", Piece.WHITE)
+                .withPiece("f2", Piece.WHITE)
+                .build();
+        MinimaxState state = MinimaxStateBuilder.create()
+                .withBoard(board)
+                .withToMove(Piece.BLACK)
+                .build();
+
+        NegamaxSearch search = new NegamaxSearch(
+                3, new ComparativeMobilityHeuristicFunction(Piece.BLACK), Piece.BLACK, TranspositionTable.create(1));
+        MinimaxAction action = search.perform(state);
+
+        assertThat(action.pretty()).startsWith("g4-g7x");
+        assertThat(search.getScore()).isEqualTo(Double.POSITIVE_INFINITY);
+    }
+
+    @Test
+    @DisplayName("it reuses what it stored in the transposition table")
+    void testTranspositions() throws Exception {
+        Board board = BoardBuilder.create()
+                .withPiece("g7", Piece.WHITE)
+                .withPiece("c4", Piece.WHITE)
+                .withPiece("c3", Piece.BLACK)
+                .withPiece("d3", Piece.BLACK)
+                .build();
+        MinimaxState state = MinimaxStateBuilder.create()
+                .withBoard(board)
+                .withToMove(Piece.BLACK)
+                .withPlayerPieces(7)
+                .build();
+
+        TranspositionTable table = TranspositionTable.create(1);
+        NegamaxSearch search = new NegamaxSearch(
+                4, new ComparativeMobilityHeuristicFunction(Piece.BLACK), Piece.BLACK, table);
+
+        MinimaxAction first = search.perform(state);
+        double score = search.getScore();
+        long nodes = search.getNodes();
+
+        // placing the same pieces in a different order transposes into the same state
+        assertThat(table.getHits()).isPositive();
+
+        MinimaxAction second = search.perform(state);
+        assertThat(second).isEqualTo(first);
+        // scores are stored as floats
+        assertThat(search.getScore()).isCloseTo(score, within(1e-6));
+        assertThat(search.getNodes()).isLessThan(nodes);
+    }
+}
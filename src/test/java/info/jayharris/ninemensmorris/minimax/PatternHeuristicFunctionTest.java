@@ -0,0 +1,138 @@
+package info.jayharris.ninemensmorris.minimax;
+
+import info.jayharris.ninemensmorris.Board;
+import info.jayharris.ninemensmorris.BoardBuilder;
+import info.jayharris.ninemensmorris.Piece;
+import info.jayharris.ninemensmorris.minimax.PatternHeuristicFunction.Term;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class PatternHeuristicFunctionTest {
+
+    @Nested
+    @DisplayName("#applyAsDouble")
+    class ApplyAsDouble {
+
+        private MinimaxState state;
+
+        @BeforeEach
+        void setUp() throws Exception {
+            Board board = BoardBuilder.create()
+                    .withPiece("a7", Piece.WHITE)
+                    .withPiece("d7", Piece.WHITE)
+                    .withPiece("g7", Piece.WHITE)
+                    .withPiece("a4", Piece.WHITE)
+                    .withPiece("d6", Piece.BLACK)
+                    .withPiece("f6", Piece.BLACK)
+                    .withPiece("g4", Piece.BLACK)
+                    .withPiece("a1", Piece.BLACK)
+                    .build();
+            state = MinimaxStateBuilder.create()
+                    .withBoard(board)
+                    .withPlayerPieces(5)
+                    .withToMove(Piece.BLACK)
+                    .build();
+        }
+
+        @Test
+        @DisplayName("it scores each mill pattern")
+        void testMills() {
+            Map<Term, Double> weights = only(Term.COMPLETE_MILL, 4);
+            weights.put(Term.OPEN_TWO, 2.0);
+            weights.put(Term.BLOCKED_TWO, -1.0);
+
+            // white: a7-d7-g7 complete, a7-a4-a1 blocked; black: b6-d6-f6 open
+            assertThat(new PatternHeuristicFunction(Piece.WHITE, weights).applyAsDouble(state))
+                    .isCloseTo(4 - 1 - 2, within(1e-9));
+        }
+
+        @Test
+        @DisplayName("it scores each neighborhood")
+        void testNeighborhoods() {
+            Map<Term, Double> weights = only(Term.MOBILITY, 1);
+            weights.put(Term.BLOCKED_PIECE, -10.0);
+            weights.put(Term.CONNECTED, 0.5);
+
+            // white: 1 move (a4-b4), a7, d7 and g7 blocked, 6 connections; black: 6 moves, 2 connections
+            double white = 1 - 30 + 3, black = 6 + 1;
+            assertThat(new PatternHeuristicFunction(Piece.WHITE, weights).applyAsDouble(state))
+                    .isCloseTo(white - black, within(1e-9));
+        }
+
+        @Test
+        @DisplayName("the players' scores are opposites")
+        void testZeroSum() {
+            PatternHeuristicFunction function = new PatternHeuristicFunction(Piece.WHITE);
+            SplittableRandom random = new SplittableRandom(17);
+            for (int i = 0; i < 1000; ++i) {
+                int mine = random.nextInt(Board.ALL_POINTS + 1);
+                int theirs = random.nextInt(Board.ALL_POINTS + 1) & ~mine;
+
+                assertThat(function.evaluate(mine, theirs)).isCloseTo(-function.evaluate(theirs, mine), within(1e-9));
+            }
+            assertThat(function.evaluate(0, 0)).isZero();
+        }
+    }
+
+    @Nested
+    @DisplayName("#readWeights")
+    class ReadWeights {
+
+        @Test
+        @DisplayName("it reads the weights in the file")
+        void testRead() throws IOException {
+            Path path = Files.createTempFile("weights", ".properties");
+            try {
+                Files.write(path, Arrays.asList("# hand tuned", "open_two = 2.5", "mobility=0"));
+
+                Map<Term, Double> weights = PatternHeuristicFunction.readWeights(path);
+                assertThat(weights).containsOnlyKeys(Term.OPEN_TWO, Term.MOBILITY);
+                assertThat(weights.get(Term.OPEN_TWO)).isEqualTo(2.5);
+                assertThat(weights.get(Term.MOBILITY)).isZero();
+            }
+            finally {
+                Files.delete(path);
+            }
+        }
+
+        @Test
+        @DisplayName("it rejects a key that isn't a term")
+        void testUnknownTerm() throws IOException {
+            Path path = Files.createTempFile("weights", ".properties");
+            try {
+                Files.write(path, Arrays.asList("tempo = 1"));
+
+                assertThatThrownBy(() -> PatternHeuristicFunction.readWeights(path)).isInstanceOf(IOException.class);
+            }
+            finally {
+                Files.delete(path);
+            }
+        }
+    }
+
+    /**
+     * weights with every term but one set to zero
+     */
+    private static Map<Term, Double> only(Term term, double weight) {
+        Map<Term, Double> weights = new EnumMap<>(Term.class);
+        for (Term t : Term.values()) {
+            weights.put(t, 0.0);
+        }
+        weights.put(term, weight);
+        return weights;
+    }
+}
@@ -0,0 +1,74 @@
+package info.jayharris.ninemensmorris.minimax;
+
+import info.jayharris.ninemensmorris.Board;
+import info.jayharris.ninemensmorris.BoardBuilder;
+import info.jayharris.ninemensmorris.Piece;
+import info.jayharris.ninemensmorris.StalemateChecker;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PerftTest {
+
+    private final MinimaxState start = MinimaxState.create(new Board(), Piece.BLACK, 9, StalemateChecker.create());
+
+    @Test
+    @DisplayName("it counts nodes from the start of the game")
+    void testStart() {
+        assertThat(Perft.perft(start, 1).getNodes()).isEqualTo(24);
+        assertThat(Perft.perft(start, 2).getNodes()).isEqualTo(24 * 23);
+        assertThat(Perft.perft(start, 3).getNodes()).isEqualTo(24 * 23 * 22);
+        assertThat(Perft.perft(start, 4).getNodes()).isEqualTo(24 * 23 * 22 * 21);
+
+        Perft.Counts counts = Perft.perft(start, 5);
+        assertThat(counts.getNodes()).isEqualTo(5_140_800);
+        assertThat(counts.getPlacements()).isEqualTo(5_140_800);
+        assertThat(counts.getCaptures()).isEqualTo(80_640);
+    }
+
+    @Test
+    @DisplayName("it breaks the count down by kind of move")
+    void testBreakdown() throws Exception {
+        Board board = BoardBuilder.create()
+                .withPiece("a7", Piece.BLACK)
+                .withPiece("d7", Piece.BLACK)
+                .withPiece("d1", Piece.BLACK)
+                .withPiece("b6", Piece.WHITE)
+                .withPiece("c4", Piece.WHITE)
+                .withPiece("e4", Piece.WHITE)
+                .withPiece("f2", Piece.WHITE)
+                .build();
+        MinimaxState state = MinimaxStateBuilder.create()
+                .withBoard(board)
+                .withToMove(Piece.BLACK)
+                .build();
+
+        Perft.Counts depth1 = Perft.perft(state, 1);
+        assertThat(depth1.getFlights()).isEqualTo(54);
+        assertThat(depth1.getCaptures()).isEqualTo(4);
+
+        // After a capture, white is down to three pieces and flies too.
+        Perft.Counts depth2 = Perft.perft(state, 2);
+        assertThat(depth2.getNodes()).isEqualTo(686);
+        assertThat(depth2.getMoves()).isEqualTo(470);
+        assertThat(depth2.getFlights()).isEqualTo(4 * 54);
+    }
+
+    @Test
+    @DisplayName("divide and parallel perft agree with perft")
+    void testDivideAndParallel() {
+        Map<MinimaxAction, Perft.Counts> divide = Perft.divide(start, 4);
+
+        assertThat(divide).hasSize(24);
+        assertThat(divide.values().stream().mapToLong(Perft.Counts::getNodes).sum())
+                .isEqualTo(Perft.perft(start, 4).getNodes());
+
+        Perft.Counts parallel = Perft.parallelPerft(start, 5, new ForkJoinPool(2));
+        assertThat(parallel.getNodes()).isEqualTo(5_140_800);
+        assertThat(parallel.getCaptures()).isEqualTo(80_640);
+    }
+}
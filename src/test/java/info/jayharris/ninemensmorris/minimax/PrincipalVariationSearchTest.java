@@ -0,0 +1,124 @@
+package info.jayharris.ninemensmorris.minimax;
+
+import info.jayharris.ninemensmorris.Board;
+import info.jayharris.ninemensmorris.BoardBuilder;
+import info.jayharris.ninemensmorris.Piece;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class PrincipalVariationSearchTest {
+
+    private final ComparativeMobilityHeuristicFunction heuristic = new ComparativeMobilityHeuristicFunction(Piece.BLACK);
+
+    private MinimaxState state;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Board board = BoardBuilder.create()
+                .withPiece("g7", Piece.WHITE)
+                .withPiece("c4", Piece.WHITE)
+                .withPiece("c3", Piece.BLACK)
+                .withPiece("d3", Piece.BLACK)
+                .build();
+        state = MinimaxStateBuilder.create()
+                .withBoard(board)
+                .withToMove(Piece.BLACK)
+                .withPlayerPieces(7)
+                .build();
+    }
+
+    @Test
+    @DisplayName("it gets the same score as an alpha-beta search, with fewer nodes")
+    void testSameScore() {
+        NegamaxSearch fixed = new NegamaxSearch(5, heuristic, Piece.BLACK, TranspositionTable.create(1));
+        fixed.perform(state);
+
+        PrincipalVariationSearch search = new PrincipalVariationSearch(heuristic, Piece.BLACK,
+                TranspositionTable.create(1), SearchBudget.UNLIMITED, 5, new KillerHistoryMoveOrderer(), 0);
+        MinimaxAction action = search.perform(state);
+
+        assertThat(action).isNotNull();
+        assertThat(search.getCompletedDepth()).isEqualTo(5);
+        assertThat(search.getScore()).isCloseTo(fixed.getScore(), within(1e-6));
+        assertThat(search.getNodes()).isLessThan(fixed.getNodes());
+        assertThat(search.getResearches()).isPositive();
+    }
+
+    @Test
+    @DisplayName("it scores a win by how soon it comes")
+    void testWin() throws Exception {
+        Board board = BoardBuilder.create()
+                .withPiece("a7", Piece.BLACK)
+                .withPiece("d7", Piece.BLACK)
+                .withPiece("g4", Piece.BLACK)
+                .withPiece("b4", Piece.BLACK)
+                .withPiece("a1", Piece.WHITE)
+                .withPiece("d1", Piece.WHITE)
+                .withPiece("f2", Piece.WHITE)
+                .build();
+        MinimaxState state = MinimaxStateBuilder.create()
+                .withBoard(board)
+                .withToMove(Piece.BLACK)
+                .build();
+
+        PrincipalVariationSearch search = new PrincipalVariationSearch(
+                heuristic, Piece.BLACK, TranspositionTable.create(1), SearchBudget.UNLIMITED, 5);
+        MinimaxAction action = search.perform(state);
+
+        assertThat(action.pretty()).startsWith("g4-g7x");
+        assertThat(search.getScore()).isEqualTo(PrincipalVariationSearch.WIN - 1);
+        assertThat(PrincipalVariationSearch.isDecided(search.getScore())).isTrue();
+        assertThat(search.getCompletedDepth()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("it sees a capture past the depth limit")
+    void testQuiescence() throws Exception {
+        // White can close a mill at g7 or at g1, and black can only block one.
+        Board board = BoardBuilder.create()
+                .withPiece("a7", Piece.WHITE)
+                .withPiece("d7", Piece.WHITE)
+                .withPiece("a1", Piece.WHITE)
+                .withPiece("d1", Piece.WHITE)
+                .withPiece("g4", Piece.WHITE)
+                .withPiece("b6", Piece.BLACK)
+                .withPiece("e3", Piece.BLACK)
+                .withPiece("f2", Piece.BLACK)
+                .build();
+        MinimaxState state = MinimaxStateBuilder.create()
+                .withBoard(board)
+                .withToMove(Piece.BLACK)
+                .build();
+
+        PrincipalVariationSearch horizon = new PrincipalVariationSearch(heuristic, Piece.BLACK,
+                TranspositionTable.create(1), SearchBudget.UNLIMITED, 1, new KillerHistoryMoveOrderer(), 0);
+        horizon.perform(state);
+        assertThat(PrincipalVariationSearch.isDecided(horizon.getScore())).isFalse();
+
+        PrincipalVariationSearch search = new PrincipalVariationSearch(
+                heuristic, Piece.BLACK, TranspositionTable.create(1), SearchBudget.UNLIMITED, 1);
+        search.perform(state);
+        assertThat(search.getScore()).isEqualTo(-(PrincipalVariationSearch.WIN - 2));
+    }
+
+    @Test
+    @DisplayName("it stops when it runs out of time")
+    void testTimeBudget() {
+        PrincipalVariationSearch search = new PrincipalVariationSearch(
+                heuristic, Piece.BLACK, TranspositionTable.create(1), SearchBudget.ofTime(Duration.ofMillis(50)));
+
+        long start = System.nanoTime();
+        MinimaxAction action = search.perform(state);
+
+        assertThat(action).isNotNull();
+        assertThat(PrincipalVariationSearch.isDecided(search.getScore())).isFalse();
+        assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(1));
+    }
+}
@@ -0,0 +1,124 @@
+package info.jayharris.ninemensmorris.minimax;
+
+import info.jayharris.ninemensmorris.Board;
+import info.jayharris.ninemensmorris.BoardBuilder;
+import info.jayharris.ninemensmorris.Piece;
+import info.jayharris.ninemensmorris.player.BasePlayer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RandomPlayoutTest {
+
+    @Nested
+    @DisplayName("#play")
+    class Play {
+
+        @Test
+        @DisplayName("it plays games to the end from the start of the game")
+        void testFromStart() {
+            RandomPlayout playout = new RandomPlayout(new SplittableRandom(17));
+            for (int i = 0; i < 1000; ++i) {
+                int result = playout.play(new Board(), BasePlayer.FIRST_PLAYER, BasePlayer.STARTING_PIECES);
+
+                assertThat(result).isBetween(RandomPlayout.LOSS, RandomPlayout.WIN);
+                assertThat(playout.getPlies()).isBetween(1, RandomPlayout.DEFAULT_MAX_PLIES);
+                if (result != RandomPlayout.DRAW) {
+                    // the placement phase takes 18 plies, and no one can lose before the end of it
+                    assertThat(playout.getPlies()).isGreaterThanOrEqualTo(2 * BasePlayer.STARTING_PIECES);
+                }
+            }
+        }
+
+        @Test
+        @DisplayName("it loses when the player to move has no moves")
+        void testNoMoves() {
+            Board board = BoardBuilder.create()
+                    .withPiece("a7", Piece.WHITE)
+                    .withPiece("d7", Piece.WHITE)
+                    .withPiece("a1", Piece.BLACK)
+                    .withPiece("d1", Piece.BLACK)
+                    .withPiece("f2", Piece.BLACK)
+                    .build();
+            RandomPlayout playout = new RandomPlayout(new SplittableRandom(17));
+
+            assertThat(playout.play(board, Piece.WHITE, 0)).isEqualTo(RandomPlayout.LOSS);
+            assertThat(playout.getPlies()).isZero();
+        }
+
+        @Test
+        @DisplayName("it's a draw when the game goes on too long")
+        void testMaxPlies() {
+            RandomPlayout playout = new RandomPlayout(new SplittableRandom(17), 5);
+
+            assertThat(playout.play(new Board(), BasePlayer.FIRST_PLAYER, BasePlayer.STARTING_PIECES))
+                    .isEqualTo(RandomPlayout.DRAW);
+            assertThat(playout.getPlies()).isEqualTo(5);
+        }
+
+        @Test
+        @DisplayName("it plays the same games from the same seed")
+        void testDeterministic() {
+            RandomPlayout first = new RandomPlayout(new SplittableRandom(42));
+            RandomPlayout second = new RandomPlayout(new SplittableRandom(42));
+            for (int i = 0; i < 100; ++i) {
+                assertThat(first.play(new Board(), BasePlayer.FIRST_PLAYER, BasePlayer.STARTING_PIECES))
+                        .isEqualTo(second.play(new Board(), BasePlayer.FIRST_PLAYER, BasePlayer.STARTING_PIECES));
+                assertThat(first.getPlies()).isEqualTo(second.getPlies());
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("#randomMove")
+    class RandomMove {
+
+        @Test
+        @DisplayName("it picks a legal move")
+        void testLegal() {
+            Board board = BoardBuilder.create()
+                    .withPiece("a7", Piece.WHITE)
+                    .withPiece("d7", Piece.WHITE)
+                    .withPiece("b4", Piece.WHITE)
+                    .withPiece("a1", Piece.BLACK)
+                    .withPiece("d1", Piece.BLACK)
+                    .withPiece("f2", Piece.BLACK)
+                    .build();
+            int[] moves = new int[MoveGenerator.MAX_MOVES];
+            int n = MoveGenerator.generate(board, Piece.WHITE, 0, moves, 0);
+            int[] legal = Arrays.copyOf(moves, n);
+
+            RandomPlayout playout = new RandomPlayout(new SplittableRandom(17));
+            for (int i = 0; i < 100; ++i) {
+                assertThat(legal).contains(playout.randomMove(
+                        board.getOccupancy(Piece.WHITE), board.getOccupancy(Piece.BLACK), 0));
+            }
+        }
+
+        @Test
+        @DisplayName("it returns no move when there aren't any")
+        void testNoMoves() {
+            RandomPlayout playout = new RandomPlayout(new SplittableRandom(17));
+
+            assertThat(playout.randomMove(0b11, 0b11100, 0)).isEqualTo(PackedMove.NO_MOVE);
+        }
+    }
+
+    @Test
+    @DisplayName("#randomPoint picks every point in the mask, and nothing else")
+    void testRandomPoint() {
+        int mask = 0b1010_0000_0000_0100_0001;
+        RandomPlayout playout = new RandomPlayout(new SplittableRandom(17));
+
+        int seen = 0;
+        for (int i = 0; i < 1000; ++i) {
+            seen |= 1 << playout.randomPoint(mask);
+        }
+        assertThat(seen).isEqualTo(mask);
+    }
+}
@@ -0,0 +1,143 @@
+package info.jayharris.ninemensmorris.minimax;
+
+import info.jayharris.ninemensmorris.Board;
+import info.jayharris.ninemensmorris.BoardBuilder;
+import info.jayharris.ninemensmorris.Coordinate;
+import info.jayharris.ninemensmorris.Piece;
+import info.jayharris.ninemensmorris.StalemateChecker;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchStateTest {
+
+    @Test
+    @DisplayName("it makes and unmakes every action in the \"place piece\" phase")
+    void testPlacePiece() throws Exception {
+        Board board = BoardBuilder.create()
+                .withPiece("g7", Piece.WHITE)
+                .withPiece("c4", Piece.WHITE)
+                .withPiece("c3", Piece.BLACK)
+                .withPiece("d3", Piece.BLACK)
+                .withPiece("a1", Piece.WHITE)
+                .build();
+        MinimaxState state = MinimaxStateBuilder.create()
+                .withBoard(board)
+                .withToMove(Piece.BLACK)
+                .withPlayerPieces(6)
+                .build();
+
+        assertMakeUnmake(state);
+    }
+
+    @Test
+    @DisplayName("it makes and unmakes every action in the \"move piece\" phase")
+    void testMovePiece() throws Exception {
+        Board board = BoardBuilder.create()
+                .withPiece("a7", Piece.WHITE)
+                .withPiece("d7", Piece.WHITE)
+                .withPiece("g7", Piece.BLACK)
+                .withPiece("b6", Piece.WHITE)
+                .withPiece("c5", Piece.WHITE)
+                .withPiece("b4", Piece.WHITE)
+                .withPiece("c4", Piece.BLACK)
+                .withPiece("e4", Piece.BLACK)
+                .withPiece("f4", Piece.BLACK)
+                .withPiece("d3", Piece.BLACK)
+                .withPiece("e3", Piece.BLACK)
+                .withPiece("d1", Piece.BLACK)
+                .build();
+        MinimaxState state = MinimaxStateBuilder.create()
+                .withBoard(board)
+                .withToMove(Piece.BLACK)
+                .build();
+
+        assertMakeUnmake(state);
+    }
+
+    @Test
+    @DisplayName("it detects a repeated board")
+    void testStalemate() throws Exception {
+        Board board = BoardBuilder.create()
+                .withPiece("a7", Piece.WHITE)
+                .withPiece("d7", Piece.WHITE)
+                .withPiece("b6", Piece.WHITE)
+                .withPiece("g1", Piece.BLACK)
+                .withPiece("d1", Piece.BLACK)
+                .withPiece("f2", Piece.BLACK)
+                .build();
+        SearchState state = SearchState.create(MinimaxStateBuilder.create()
+                .withBoard(board)
+                .withToMove(Piece.WHITE)
+                .withStalemateChecker(StalemateChecker.create())
+                .build());
+
+        state.make(move("b6", "d6"));
+        state.make(move("f2", "f4"));
+        state.make(move("d6", "b6"));
+        state.make(move("f4", "f2"));
+        assertThat(state.isStalemate()).isFalse();
+
+        SearchState.Undo undo = state.make(move("b6", "d6"));
+        assertThat(state.isStalemate()).isTrue();
+
+        state.unmake(undo);
+        assertThat(state.isStalemate()).isFalse();
+    }
+
+    @Test
+    @DisplayName("it still detects a repeated board after taking back a capture")
+    void testStalemateAfterCapture() throws Exception {
+        Board board = BoardBuilder.create()
+                .withPiece("a7", Piece.WHITE)
+                .withPiece("d7", Piece.WHITE)
+                .withPiece("b6", Piece.WHITE)
+                .withPiece("a4", Piece.BLACK)
+                .withPiece("g1", Piece.BLACK)
+                .withPiece("d1", Piece.BLACK)
+                .withPiece("f2", Piece.BLACK)
+                .build();
+        SearchState state = SearchState.create(MinimaxStateBuilder.create()
+                .withBoard(board)
+                .withToMove(Piece.WHITE)
+                .withStalemateChecker(StalemateChecker.create())
+                .build());
+
+        state.make(move("b6", "d6"));
+        state.make(move("f2", "f4"));
+        state.make(move("d6", "b6"));
+
+        // The capture means no earlier board can come up again, until it's taken back.
+        SearchState.Undo capture = state.make(move("a4", "a1").withCapture(Coordinate.get("a7")));
+        assertThat(state.isStalemate()).isFalse();
+        state.unmake(capture);
+
+        state.make(move("f4", "f2"));
+        state.make(move("b6", "d6"));
+        assertThat(state.isStalemate()).isTrue();
+    }
+
+    private void assertMakeUnmake(MinimaxState state) {
+        SearchState searchState = SearchState.create(state);
+        long key = searchState.getKey();
+
+        for (MinimaxAction action : state.actions()) {
+            MinimaxState expected = MinimaxState.create(state, action);
+
+            SearchState.Undo undo = searchState.make(action);
+            assertThat(searchState.getBoard()).as(action.pretty()).isEqualTo(expected.getBoard());
+            assertThat(searchState.getToMove()).isEqualTo(expected.getToMove());
+            assertThat(searchState.getPlayerPieces()).isEqualTo(expected.getPlayerPieces());
+            assertThat(searchState.getKey()).isEqualTo(expected.getKey());
+
+            searchState.unmake(undo);
+            assertThat(searchState.getBoard()).isEqualTo(state.getBoard());
+            assertThat(searchState.getKey()).isEqualTo(key);
+        }
+    }
+
+    private static MinimaxAction move(String from, String to) {
+        return MinimaxAction.fromMovePiece(Coordinate.get(from), Coordinate.get(to));
+    }
+}
@@ -0,0 +1,113 @@
+package info.jayharris.ninemensmorris.minimax;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class TranspositionTableTest {
+
+    private final TranspositionTable table = TranspositionTable.create(1);
+
+    @Test
+    @DisplayName("it packs and unpacks an entry")
+    void testStoreAndProbe() {
+        int move = PackedMove.withCapture(PackedMove.movePiece(3, 4), 17);
+        table.store(0x1234_5678_9abcL, -1.5, 6, TranspositionTable.LOWER, move);
+
+        long entry = table.probe(0x1234_5678_9abcL);
+        assertThat(TranspositionTable.score(entry)).isEqualTo(-1.5);
+        assertThat(TranspositionTable.depth(entry)).isEqualTo(6);
+        assertThat(TranspositionTable.bound(entry)).isEqualTo(TranspositionTable.LOWER);
+        assertThat(TranspositionTable.move(entry)).isEqualTo(move);
+
+        table.store(1L, Double.NEGATIVE_INFINITY, 0, TranspositionTable.EXACT, PackedMove.NO_MOVE);
+        assertThat(TranspositionTable.score(table.probe(1L))).isEqualTo(Double.NEGATIVE_INFINITY);
+        assertThat(TranspositionTable.move(table.probe(1L))).isEqualTo(PackedMove.NO_MOVE);
+    }
+
+    @Test
+    @DisplayName("it keeps the deeper entry and replaces the other")
+    void testReplacement() {
+        long buckets = table.capacity() / 2;
+        long deep = 5L, shallow = deep + buckets, shallower = deep + 2 * buckets;
+
+        table.store(deep, 1.0, 8, TranspositionTable.EXACT, PackedMove.placePiece(0));
+        table.store(shallow, 2.0, 2, TranspositionTable.EXACT, PackedMove.placePiece(1));
+        table.store(shallower, 3.0, 1, TranspositionTable.EXACT, PackedMove.placePiece(2));
+
+        assertThat(table.probe(deep)).isNotZero();
+        assertThat(table.probe(shallow)).isZero();
+        assertThat(TranspositionTable.score(table.probe(shallower))).isEqualTo(3.0);
+
+        table.store(shallow, 4.0, 9, TranspositionTable.UPPER, PackedMove.placePiece(1));
+        assertThat(TranspositionTable.score(table.probe(shallow))).isEqualTo(4.0);
+        assertThat(table.probe(deep)).isZero();
+    }
+
+    @Test
+    @DisplayName("it counts hits, misses and collisions")
+    void testCounters() {
+        long buckets = table.capacity() / 2;
+
+        table.probe(7L);
+        table.store(7L, 0.0, 1, TranspositionTable.EXACT, PackedMove.NO_MOVE);
+        table.probe(7L);
+        table.probe(7L + buckets);
+
+        assertThat(table.getHits()).isEqualTo(1);
+        assertThat(table.getMisses()).isEqualTo(2);
+        assertThat(table.getCollisions()).isEqualTo(1);
+
+        table.clear();
+        assertThat(table.probe(7L)).isZero();
+        assertThat(table.getHits()).isZero();
+    }
+
+    @Test
+    @DisplayName("a probe never returns another state's entry while threads are writing")
+    void testConcurrentWrites() throws Exception {
+        long buckets = table.capacity() / 2;
+        AtomicBoolean corrupt = new AtomicBoolean();
+
+        // Every key lands in the same bucket, and its score identifies it.
+        Runnable writer = () -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < 200_000; ++i) {
+                long key = 3 + buckets * random.nextInt(64);
+                table.store(key, key, random.nextInt(10), TranspositionTable.EXACT, PackedMove.NO_MOVE);
+
+                long entry = table.probe(key);
+                if (entry != 0 && TranspositionTable.score(entry) != key) {
+                    corrupt.set(true);
+                }
+            }
+        };
+
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; ++i) {
+            threads[i] = new Thread(writer);
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(corrupt).isFalse();
+        assertThat(table.getHits() + table.getMisses()).isEqualTo(threads.length * 200_000L);
+    }
+
+    @Test
+    @DisplayName("its size is a power of two that fits in the memory it was given")
+    void testSize() {
+        assertThat(Integer.bitCount(table.capacity())).isEqualTo(1);
+        assertThat(table.capacity() * 2L * Long.BYTES).isLessThanOrEqualTo(1024 * 1024);
+        assertThat(TranspositionTable.create(3).capacity()).isEqualTo(table.capacity() * 2);
+
+        assertThatIllegalArgumentException().isThrownBy(() -> TranspositionTable.create(0));
+    }
+}
@@ -0,0 +1,137 @@
+package info.jayharris.ninemensmorris.minimax;
+
+import info.jayharris.ninemensmorris.Board;
+import info.jayharris.ninemensmorris.BoardBuilder;
+import info.jayharris.ninemensmorris.Piece;
+import info.jayharris.ninemensmorris.minimax.feature.CountMillsFeature;
+import info.jayharris.ninemensmorris.minimax.feature.CountPiecesFeature;
+import info.jayharris.ninemensmorris.minimax.feature.Feature;
+import info.jayharris.ninemensmorris.minimax.feature.MobilityFeature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.within;
+
+class WeightedFeatureHeuristicFunctionTest {
+
+    private Map<Feature, Double> weights;
+    private MinimaxState state;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        weights = new LinkedHashMap<>();
+        weights.put(new CountPiecesFeature(Piece.BLACK), 1.0);
+        weights.put(new CountPiecesFeature(Piece.WHITE), -1.0);
+        weights.put(new MobilityFeature(Piece.BLACK), 0.5);
+        weights.put(new MobilityFeature(Piece.WHITE), -0.25);
+        weights.put(new CountMillsFeature(Piece.BLACK), 10.0);
+        weights.put(new CountMillsFeature(Piece.WHITE), -10.0);
+
+        Board board = BoardBuilder.create()
+                .withPiece("a7", Piece.BLACK)
+                .withPiece("d7", Piece.BLACK)
+                .withPiece("g7", Piece.BLACK)
+                .withPiece("d5", Piece.BLACK)
+                .withPiece("e5", Piece.WHITE)
+                .withPiece("b4", Piece.BLACK)
+                .withPiece("c4", Piece.WHITE)
+                .withPiece("e3", Piece.WHITE)
+                .build();
+        state = MinimaxStateBuilder.create()
+                .withBoard(board)
+                .withPlayerPieces(4)
+                .withToMove(Piece.BLACK)
+                .build();
+        /*
+        7  ● --------------- ● --------------- ●
+           |                 |                 |
+           |                 |                 |
+        6  |     + --------- + --------- +     |
+           |     |           |           |     |
+           |     |           |           |     |
+        5  |     |     + --- ● --- ○     |     |
+           |     |     |           |     |     |
+           |     |     |           |     |     |
+        4  + --- ● --- ○           + --- + --- +
+           |     |     |           |     |     |
+           |     |     |           |     |     |
+        3  |     |     + --- + --- ○     |     |
+           |     |           |           |     |
+           |     |           |           |     |
+        2  |     + --------- + --------- +     |
+           |                 |                 |
+           |                 |                 |
+        1  + --------------- + --------------- +
+
+           a     b     c     d     e     f     g
+         */
+    }
+
+    @Test
+    @DisplayName("it adds up the weighted features")
+    void applyAsDouble() {
+        // black: 5 pieces, 8 moves, 1 mill; white: 3 pieces, 5 moves, no mills
+        double expected = 5 - 3 + 0.5 * 8 - 0.25 * 5 + 10;
+
+        assertThat(WeightedFeatureHeuristicFunction.create(Piece.BLACK, weights).applyAsDouble(state))
+                .isCloseTo(expected, within(1e-9));
+    }
+
+    @Test
+    @DisplayName("it computes each feature for the feature's own player")
+    void testOpponent() {
+        double expected = weights.entrySet().stream()
+                .mapToDouble(entry -> entry.getValue() * entry.getKey().apply(state))
+                .sum();
+
+        assertThat(WeightedFeatureHeuristicFunction.create(Piece.WHITE, weights).applyAsDouble(state))
+                .isCloseTo(expected, within(1e-9));
+    }
+
+    @Test
+    @DisplayName("it reads back the weights it writes")
+    void testWeightsFile() throws IOException {
+        Map<String, Double> named = new LinkedHashMap<>();
+        named.put("pieces", 1.0);
+        named.put("mobility", 0.5);
+        named.put("mills", 10.0);
+
+        Path path = Files.createTempFile("weights", ".properties");
+        try {
+            WeightedFeatureHeuristicFunction.writeWeights(path, named, "test");
+
+            assertThat(WeightedFeatureHeuristicFunction.readWeights(path)).isEqualTo(named);
+            // black: 5 pieces, 8 moves, 1 mill; white: 3 pieces, 5 moves, no mills
+            assertThat(WeightedFeatureHeuristicFunction.create(Piece.BLACK, path).applyAsDouble(state))
+                    .isCloseTo(5 - 3 + 0.5 * (8 - 5) + 10, within(1e-9));
+        }
+        finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    @DisplayName("it won't read a weight for a feature it doesn't know")
+    void testUnknownFeature() throws IOException {
+        Path path = Files.createTempFile("weights", ".properties");
+        try {
+            Files.write(path, Collections.singletonList("corners = 1.0"));
+
+            assertThatExceptionOfType(IOException.class)
+                    .isThrownBy(() -> WeightedFeatureHeuristicFunction.readWeights(path));
+        }
+        finally {
+            Files.delete(path);
+        }
+    }
+}
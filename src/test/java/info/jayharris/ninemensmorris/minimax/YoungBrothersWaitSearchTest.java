@@ -0,0 +1,81 @@
+package info.jayharris.ninemensmorris.minimax;
+
+import info.jayharris.ninemensmorris.Board;
+import info.jayharris.ninemensmorris.BoardBuilder;
+import info.jayharris.ninemensmorris.Piece;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class YoungBrothersWaitSearchTest {
+
+    private final ComparativeMobilityHeuristicFunction heuristic = new ComparativeMobilityHeuristicFunction(Piece.BLACK);
+
+    @Test
+    @DisplayName("it gets the same result as a serial search, with any number of threads")
+    void testDeterministic() throws Exception {
+        Board board = BoardBuilder.create()
+                .withPiece("g7", Piece.WHITE)
+                .withPiece("c4", Piece.WHITE)
+                .withPiece("c3", Piece.BLACK)
+                .withPiece("d3", Piece.BLACK)
+                .build();
+        MinimaxState state = MinimaxStateBuilder.create()
+                .withBoard(board)
+                .withToMove(Piece.BLACK)
+                .withPlayerPieces(7)
+                .build();
+
+        NegamaxSearch serial = new NegamaxSearch(4, heuristic, Piece.BLACK, TranspositionTable.create(1));
+        MinimaxAction expected = serial.perform(state);
+
+        for (int threads : new int[] { 1, 2, 4 }) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                YoungBrothersWaitSearch search = new YoungBrothersWaitSearch(4, heuristic, Piece.BLACK, pool, 2);
+
+                for (int i = 0; i < 3; ++i) {
+                    assertThat(search.perform(state)).isEqualTo(expected);
+                    assertThat(search.getScore()).isCloseTo(serial.getScore(), within(1e-6));
+                }
+            }
+            finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("it finds a move that wins the game")
+    void testWin() throws Exception {
+        Board board = BoardBuilder.create()
+                .withPiece("a7", Piece.BLACK)
+                .withPiece("d7", Piece.BLACK)
+                .withPiece("g4", Piece.BLACK)
+                .withPiece("b4", Piece.BLACK)
+                .withPiece("a1", Piece.WHITE)
+                .withPiece("d1", Piece.WHITE)
+                .withPiece("f2", Piece.WHITE)
+                .build();
+        MinimaxState state = MinimaxStateBuilder.create()
+                .withBoard(board)
+                .withToMove(Piece.BLACK)
+                .build();
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            YoungBrothersWaitSearch search = new YoungBrothersWaitSearch(3, heuristic, Piece.BLACK, pool, 2);
+
+            assertThat(search.perform(state).pretty()).isEqualTo("g4-g7xf2");
+            assertThat(search.getScore()).isEqualTo(Double.POSITIVE_INFINITY);
+            assertThat(search.getNodes()).isPositive();
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package info.jayharris.ninemensmorris.tablebase;
+
+import info.jayharris.ninemensmorris.Board;
+import info.jayharris.ninemensmorris.BoardBuilder;
+import info.jayharris.ninemensmorris.Coordinate;
+import info.jayharris.ninemensmorris.Piece;
+import info.jayharris.ninemensmorris.minimax.MinimaxAction;
+import info.jayharris.ninemensmorris.minimax.MinimaxState;
+import info.jayharris.ninemensmorris.minimax.MinimaxStateBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Generating the 3v3 table, the smallest there is, takes a while, so these
+ * tests only run with {@code gradle slowTest}.
+ */
+@Tag("slow")
+class TablebaseTest {
+
+    @TempDir
+    static Path directory;
+
+    private static Tablebase tablebase;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        new TablebaseGenerator(directory, 3).generate();
+        tablebase = Tablebase.open(directory);
+    }
+
+    @Test
+    @DisplayName("it finds a win by closing a mill")
+    void testWin() {
+        int result = tablebase.probe(mask("a7", "d7", "b4"), mask("a1", "d1", "f2"));
+
+        assertThat(Tablebase.isWin(result)).isTrue();
+        assertThat(Tablebase.distance(result)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("it finds a loss against two threats")
+    void testLoss() {
+        int result = tablebase.probe(mask("b6", "c4", "e3"), mask("a7", "d7", "a4"));
+
+        assertThat(Tablebase.isLoss(result)).isTrue();
+        assertThat(Tablebase.distance(result)).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("it plays the quickest win")
+    void testBestMove() throws Exception {
+        Board board = BoardBuilder.create()
+                .withPiece("a7", Piece.WHITE)
+                .withPiece("d7", Piece.WHITE)
+                .withPiece("b4", Piece.WHITE)
+                .withPiece("a1", Piece.BLACK)
+                .withPiece("d1", Piece.BLACK)
+                .withPiece("f2", Piece.BLACK)
+                .build();
+        MinimaxState state = MinimaxStateBuilder.create()
+                .withBoard(board)
+                .withToMove(Piece.WHITE)
+                .build();
+
+        MinimaxAction action = tablebase.bestMove(state);
+        assertThat(action.getMovePieceFrom()).isEqualTo(Coordinate.get("b4"));
+        assertThat(action.getMovePieceTo()).isEqualTo(Coordinate.get("g7"));
+        assertThat(action.isCapturePiece()).isTrue();
+    }
+
+    @Test
+    @DisplayName("it doesn't know positions it has no file for, or from the place piece phase")
+    void testUnknown() throws Exception {
+        assertThat(tablebase.covers(3, 3)).isTrue();
+        assertThat(tablebase.covers(4, 3)).isFalse();
+        assertThat(tablebase.probe(mask("a7", "d7", "b4", "b2"), mask("a1", "d1", "f2"))).isEqualTo(Tablebase.UNKNOWN);
+
+        MinimaxState state = MinimaxStateBuilder.create()
+                .withBoard(new Board())
+                .withToMove(Piece.WHITE)
+                .withPlayerPieces(9)
+                .build();
+        assertThat(tablebase.probe(state)).isEqualTo(Tablebase.UNKNOWN);
+        assertThat(tablebase.bestMove(state)).isNull();
+    }
+
+    private static int mask(String... points) {
+        int mask = 0;
+        for (String point : points) {
+            mask |= 1 << Coordinate.get(point).getIndex();
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,39 @@
+package info.jayharris.ninemensmorris.tuning;
+
+import info.jayharris.ninemensmorris.minimax.WeightedFeatureHeuristicFunction;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SelfPlayTest {
+
+    private final SelfPlay selfPlay = new SelfPlay(1, 8,
+            piece -> WeightedFeatureHeuristicFunction.fromNames(piece, TexelTuner.INITIAL_WEIGHTS));
+
+    @Test
+    @DisplayName("it labels every position in every game")
+    void testPlay() {
+        LabeledPositions positions = selfPlay.play(4, 17);
+
+        // no one can lose before every piece is placed
+        assertThat(positions.size()).isGreaterThanOrEqualTo(4 * 18);
+        for (int i = 0; i < positions.size(); ++i) {
+            assertThat(positions.getResult(i)).isIn(LabeledPositions.WIN, LabeledPositions.DRAW, LabeledPositions.LOSS);
+        }
+        // the first position of a game is the empty board
+        assertThat(positions.getPosition(0)).isZero();
+    }
+
+    @Test
+    @DisplayName("it plays the same games from the same seed")
+    void testDeterministic() {
+        LabeledPositions first = selfPlay.play(2, 17), second = selfPlay.play(2, 17);
+
+        assertThat(first.size()).isEqualTo(second.size());
+        for (int i = 0; i < first.size(); ++i) {
+            assertThat(first.getPosition(i)).isEqualTo(second.getPosition(i));
+            assertThat(first.getResult(i)).isEqualTo(second.getResult(i));
+        }
+    }
+}
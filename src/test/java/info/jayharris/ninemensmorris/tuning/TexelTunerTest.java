@@ -0,0 +1,64 @@
+package info.jayharris.ninemensmorris.tuning;
+
+import com.google.common.collect.ImmutableMap;
+import info.jayharris.ninemensmorris.Board;
+import info.jayharris.ninemensmorris.PositionIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class TexelTunerTest {
+
+    private LabeledPositions positions;
+
+    /**
+     * Makes random positions that the player with more pieces wins, and where
+     * the players have the same number of pieces, draws.
+     */
+    @BeforeEach
+    void setUp() {
+        SplittableRandom random = new SplittableRandom(17);
+        long[] packed = new long[10_000];
+        float[] results = new float[packed.length];
+        for (int i = 0; i < packed.length; ++i) {
+            int mine = random.nextInt(Board.ALL_POINTS + 1) & random.nextInt(Board.ALL_POINTS + 1);
+            int theirs = random.nextInt(Board.ALL_POINTS + 1) & random.nextInt(Board.ALL_POINTS + 1) & ~mine;
+
+            packed[i] = PositionIndex.pack(mine, theirs);
+            int difference = Integer.bitCount(mine) - Integer.bitCount(theirs);
+            results[i] = difference > 0 ? LabeledPositions.WIN
+                    : difference < 0 ? LabeledPositions.LOSS : LabeledPositions.DRAW;
+        }
+        positions = LabeledPositions.of(packed, results);
+    }
+
+    @Test
+    @DisplayName("it fits the weights to the results")
+    void testTune() {
+        TexelTuner tuner = new TexelTuner(positions);
+        Map<String, Double> initial = ImmutableMap.of();
+
+        Map<String, Double> tuned = tuner.tune(initial, 300, 0.05);
+
+        assertThat(tuned).containsOnlyKeys("pieces", "mills", "open_twos", "mobility");
+        assertThat(tuner.loss(tuned)).isLessThan(tuner.loss(initial));
+        assertThat(tuned.get("pieces")).isGreaterThan(1.0);
+        assertThat(Math.abs(tuned.get("pieces"))).isGreaterThan(Math.abs(tuned.get("mobility")));
+    }
+
+    @Test
+    @DisplayName("the loss with every weight at zero is log 2")
+    void testLoss() {
+        TexelTuner tuner = new TexelTuner(positions, Arrays.asList("pieces"));
+
+        assertThat(tuner.size()).isEqualTo(10_000);
+        assertThat(tuner.loss(ImmutableMap.of())).isCloseTo(Math.log(2), within(1e-9));
+    }
+}